@@ -0,0 +1,37 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collection;
+
+/**
+ * Сбрасывает кэш второго уровня Hibernate после записей мимо JPA (R2DBC).
+ * <p>
+ * Такие записи Hibernate не видит, поэтому без сброса JPA-чтения отдавали бы устаревшие
+ * {@link Person} и {@link Book} до истечения срока жизни региона. Регион запросов
+ * {@value #BOOK_BY_USER_REGION} сбрасывается целиком: Hibernate не умеет сбрасывать отдельные запросы.
+ * Вызывается после коммита записи.
+ */
+@Slf4j
+@Component
+public class SecondLevelCacheEviction {
+    public static final String BOOK_BY_USER_REGION = "book-by-user";
+
+    private final Cache cache;
+
+    public SecondLevelCacheEviction(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    public void evict(Long userId, Collection<Long> bookIds) {
+        cache.evictEntityData(Person.class, userId);
+        bookIds.forEach(bookId -> cache.evictEntityData(Book.class, bookId));
+        cache.evictQueryRegion(BOOK_BY_USER_REGION);
+        log.debug("Evicted second-level cache of user {} and books {}", userId, bookIds);
+    }
+}
@@ -0,0 +1,169 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Supplier;
+
+/**
+ * Кэш собранных {@link UserBookResponse} по id пользователя.
+ * <p>
+ * Заполнение и сброс выполняются после коммита текущей транзакции, так что откаченная
+ * транзакция ничего не кладёт в кэш и ничего из него не выбрасывает. Чтобы чтение, начатое
+ * до чужого коммита, не положило устаревший ответ, у каждого пользователя есть счётчик
+ * поколений (по полосам): ответ кладётся только если поколение не изменилось с начала чтения.
+ * <p>
+ * Книги без известного владельца сбрасываются по обратному индексу {@code bookId -> userId}
+ * закэшированных ответов. Чтение, которое шло во время такого сброса, ответ не кладёт: прежний
+ * владелец книги мог ещё не попасть в индекс.
+ */
+@Slf4j
+@Component
+public class UserBookResponseCache implements MeterBinder {
+    private static final int STRIPES = 1024;
+
+    private final Cache<Long, UserBookResponse> cache;
+    private final AtomicLongArray generations = new AtomicLongArray(STRIPES);
+    private final Cache<Long, Long> ownerByBook;
+    private final AtomicLong bookInvalidations = new AtomicLong();
+
+    public UserBookResponseCache(@Value("${app.cache.user-book-response.maximum-size:10000}") long maximumSize,
+                                 @Value("${app.cache.user-book-response.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        // запись индекса обновляется при каждой записи ответа и живёт не меньше него
+        this.ownerByBook = Caffeine.newBuilder()
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * Возвращает ответ из кэша или собирает его через {@code loader}.
+     */
+    public UserBookResponse get(Long userId, Supplier<UserBookResponse> loader) {
+        UserBookResponse cached = cache.getIfPresent(userId);
+        if (cached != null) {
+            log.debug("User book response cache hit: {}", userId);
+            return cached;
+        }
+        Fence fence = new Fence(generations.get(stripe(userId)), bookInvalidations.get());
+        UserBookResponse loaded = loader.get();
+        afterCommit(() -> put(userId, loaded, fence));
+        return loaded;
+    }
+
+    /**
+     * Сбрасывает ответ пользователя после коммита текущей транзакции.
+     */
+    public void invalidateUser(Long userId) {
+        if (userId != null) {
+            afterCommit(() -> evict(userId));
+        }
+    }
+
+    /**
+     * Сбрасывает ответ пользователя, у которого в кэше есть эта книга.
+     * Нужен, когда прежний владелец книги заранее неизвестен.
+     */
+    public void invalidateBook(Long bookId) {
+        if (bookId != null) {
+            afterCommit(() -> {
+                bookInvalidations.incrementAndGet();
+                Long userId = ownerByBook.asMap().remove(bookId);
+                if (userId != null) {
+                    evict(userId);
+                }
+            });
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "userBookResponse");
+    }
+
+    private void put(Long userId, UserBookResponse response, Fence fence) {
+        if (!holds(userId, fence)) {
+            return;
+        }
+        cache.asMap().compute(userId, (key, previous) -> {
+            if (previous != null) {
+                unindex(userId, previous);
+            }
+            response.getBooksIdList().forEach(bookId -> {
+                if (bookId != null) {
+                    ownerByBook.put(bookId, userId);
+                }
+            });
+            return response;
+        });
+        // сброс мог пройти между проверкой и записью
+        if (!holds(userId, fence)) {
+            cache.asMap().remove(userId, response);
+        }
+    }
+
+    private void evict(Long userId) {
+        generations.incrementAndGet(stripe(userId));
+        cache.asMap().computeIfPresent(userId, (key, response) -> {
+            unindex(userId, response);
+            return null;
+        });
+        log.debug("Evicted user book response: {}", userId);
+    }
+
+    /**
+     * Записи индекса ответов, вытесненных по размеру, остаются до истечения срока:
+     * лишний сброс их прежнего владельца безопасен.
+     */
+    private void unindex(Long userId, UserBookResponse response) {
+        response.getBooksIdList().forEach(bookId -> {
+            if (bookId != null) {
+                ownerByBook.asMap().remove(bookId, userId);
+            }
+        });
+    }
+
+    /**
+     * Поколение пользователя и счётчик сбросов книг на начало чтения.
+     */
+    private record Fence(long generation, long bookInvalidations) {
+    }
+
+    private boolean holds(Long userId, Fence fence) {
+        return generations.get(stripe(userId)) == fence.generation()
+                && bookInvalidations.get() == fence.bookInvalidations();
+    }
+
+    private static int stripe(Long userId) {
+        return Long.hashCode(userId) & (STRIPES - 1);
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,78 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Сбрасывает {@link UserBookResponseCache} при изменениях через {@code UserService} и {@code BookService},
+ * какая бы реализация сервисов ни была активна.
+ */
+@Aspect
+@Component
+public class UserBookResponseCacheInvalidation {
+    private final UserBookResponseCache cache;
+
+    public UserBookResponseCacheInvalidation(UserBookResponseCache cache) {
+        this.cache = cache;
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.UserService.updateUser(..)) && args(userDto)")
+    public void userUpdated(UserDto userDto) {
+        cache.invalidateUser(userDto.getId());
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.UserService.deleteUserById(..)) && args(userId)")
+    public void userDeleted(Long userId) {
+        cache.invalidateUser(userId);
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.createBook(..)) && args(bookDto)")
+    public void bookCreated(BookDto bookDto) {
+        cache.invalidateUser(bookDto.getUserId());
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.createBooks(..)) && args(bookDtos)")
+    public void booksCreated(List<BookDto> bookDtos) {
+        bookDtos.stream()
+                .map(BookDto::getUserId)
+                .distinct()
+                .forEach(cache::invalidateUser);
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.updateBook(..)) && args(bookDto)")
+    public void bookUpdated(BookDto bookDto) {
+        // книга могла сменить владельца: прежний известен только по кэшу
+        cache.invalidateUser(bookDto.getUserId());
+        cache.invalidateBook(bookDto.getId());
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.updateBooks(..)) && args(bookDtos)")
+    public void booksUpdated(List<BookDto> bookDtos) {
+        bookDtos.stream()
+                .map(BookDto::getUserId)
+                .distinct()
+                .forEach(cache::invalidateUser);
+        bookDtos.forEach(bookDto -> cache.invalidateBook(bookDto.getId()));
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.deleteBooksByIds(..)) && args(bookIds)")
+    public void booksDeleted(Collection<Long> bookIds) {
+        bookIds.forEach(cache::invalidateBook);
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.deleteBookById(..)) && args(bookId)")
+    public void bookDeleted(Long bookId) {
+        cache.invalidateBook(bookId);
+    }
+
+    @AfterReturning("execution(* com.edu.ulab.app.service.BookService.deleteBookByUserId(..)) && args(userId)")
+    public void userBooksDeleted(Long userId) {
+        cache.invalidateUser(userId);
+    }
+}
@@ -0,0 +1,36 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Подстройка размера пула Hikari по времени ожидания соединения.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.pool.adaptive")
+public class AdaptivePoolProperties {
+    private boolean enabled;
+    private int minSize = 5;
+    private int maxSize = 30;
+    /**
+     * Как часто пересматривать размер пула.
+     */
+    private Duration interval = Duration.ofSeconds(10);
+    /**
+     * На сколько соединений увеличивать пул за один шаг. Уменьшается пул по одному соединению.
+     */
+    private int step = 2;
+    /**
+     * Среднее ожидание соединения выше этого значения - пул мал.
+     */
+    private Duration targetWait = Duration.ofMillis(5);
+    /**
+     * Если соединение в среднем занято дольше, медленная сама база и пул не увеличивается:
+     * новые соединения только добавят ей нагрузки.
+     */
+    private Duration latencyCeiling = Duration.ofMillis(100);
+}
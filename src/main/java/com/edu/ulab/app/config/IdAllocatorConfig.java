@@ -0,0 +1,20 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.id.IdAllocatorGenerator;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Передаёт {@link IdAllocator} из контекста генератору идентификаторов Hibernate,
+ * чтобы JPA и JdbcTemplate брали id из одних и тех же блоков.
+ */
+@Configuration
+public class IdAllocatorConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer idAllocatorCustomizer(IdAllocator idAllocator) {
+        return hibernateProperties -> hibernateProperties.put(IdAllocatorGenerator.ALLOCATOR, idAllocator);
+    }
+}
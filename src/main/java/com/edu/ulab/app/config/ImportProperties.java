@@ -0,0 +1,32 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Настройки пакетной загрузки пользователей {@code /api/v1/import/users}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.import")
+public class ImportProperties {
+    /**
+     * Число записей в одной транзакции вставки.
+     */
+    private int chunkSize = 1000;
+    /**
+     * Сколько разобранных пачек может ждать вставки. Когда очередь полна, чтение тела запроса
+     * приостанавливается, поэтому память не зависит от размера загрузки.
+     */
+    private int queueCapacity = 4;
+    /**
+     * Сколько ошибок попадает в отчёт. Остальные только учитываются в счётчике.
+     */
+    private int maxReportedErrors = 1000;
+    /**
+     * Сколько загрузок может идти одновременно: у каждой свой поток записи. Сверх этого
+     * загрузка отклоняется с 503, а не создаёт новый поток.
+     */
+    private int maxConcurrentImports = 4;
+}
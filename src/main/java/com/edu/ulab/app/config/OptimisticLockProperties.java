@@ -0,0 +1,24 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Повторы обновления при конфликте версий.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.optimistic-lock")
+public class OptimisticLockProperties {
+    /**
+     * Число попыток вместе с первой.
+     */
+    private int maxAttempts = 3;
+    /**
+     * Пауза перед повтором растёт линейно с номером попытки, к ней добавляется случайная часть того же размера.
+     */
+    private Duration backoff = Duration.ofMillis(20);
+}
@@ -0,0 +1,29 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Размеры страниц списочных эндпоинтов.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.paging")
+public class PagingProperties {
+    /**
+     * Размер страницы, если клиент его не передал.
+     */
+    private int defaultSize = 50;
+    /**
+     * Больший размер урезается до этого значения.
+     */
+    private int maxSize = 500;
+
+    public int resolve(Integer requested) {
+        if (requested == null || requested < 1) {
+            return defaultSize;
+        }
+        return Math.min(requested, maxSize);
+    }
+}
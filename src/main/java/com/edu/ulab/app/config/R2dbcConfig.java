@@ -0,0 +1,52 @@
+package com.edu.ulab.app.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+
+/**
+ * Пул R2DBC рядом с JDBC-пулом.
+ * <p>
+ * Ни пул, ни {@link R2dbcTransactionManager} не регистрируются бинами: бин {@link ConnectionFactory}
+ * отключил бы автоконфигурацию {@code DataSource}, а второй менеджер транзакций сделал бы
+ * неоднозначными все {@code @Transactional}. Реактивный код получает только {@link DatabaseClient}
+ * и {@link TransactionalOperator}.
+ */
+@Configuration
+public class R2dbcConfig implements DisposableBean {
+    private final ConnectionPool connectionPool;
+
+    public R2dbcConfig(ReactiveDataProperties properties) {
+        ConnectionFactory connectionFactory = ConnectionFactories.get(ConnectionFactoryOptions.parse(properties.getUrl())
+                .mutate()
+                .option(ConnectionFactoryOptions.USER, properties.getUsername())
+                .option(ConnectionFactoryOptions.PASSWORD, properties.getPassword())
+                .build());
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(connectionFactory)
+                .maxSize(properties.getMaxPoolSize())
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient databaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator() {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionPool));
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+}
@@ -0,0 +1,24 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Подключение R2DBC для реактивного API {@code /api/v2/user}.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.reactive")
+public class ReactiveDataProperties {
+    /**
+     * URL базы в формате R2DBC, например {@code r2dbc:postgresql://localhost:5432/db}.
+     */
+    private String url;
+    private String username;
+    private String password;
+    /**
+     * Максимум соединений R2DBC. Не зависит от пула Hikari блокирующего API.
+     */
+    private int maxPoolSize = 10;
+}
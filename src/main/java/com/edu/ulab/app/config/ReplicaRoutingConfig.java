@@ -0,0 +1,71 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.datasource.ReadWritePools;
+import com.edu.ulab.app.datasource.ReadWriteRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Заменяет DataSource из автоконфигурации маршрутизатором между основным сервером и репликами.
+ * <p>
+ * Все пулы получают настройки {@code spring.datasource.hikari}, реплики отличаются только адресом,
+ * учётными данными, именем пула и read-only соединениями. Пулы не регистрируются отдельными бинами,
+ * чтобы в контексте остался один DataSource.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class ReplicaRoutingConfig {
+
+    @Bean(destroyMethod = "close")
+    public ReadWritePools readWritePools(DataSourceProperties dataSourceProperties,
+                                         ReplicaRoutingProperties properties,
+                                         Environment environment,
+                                         MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+        MicrometerMetricsTrackerFactory metrics = new MicrometerMetricsTrackerFactory(meterRegistry);
+        HikariDataSource primary = pool(binder, dataSourceProperties, dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+        primary.setMetricsTrackerFactory(metrics);
+
+        List<HikariDataSource> replicas = new ArrayList<>();
+        for (ReplicaRoutingProperties.Replica replica : properties.getReplicas()) {
+            HikariDataSource pool = pool(binder, dataSourceProperties, replica.getUrl(),
+                    replica.getUsername() == null ? dataSourceProperties.determineUsername() : replica.getUsername(),
+                    replica.getPassword() == null ? dataSourceProperties.determinePassword() : replica.getPassword());
+            pool.setPoolName(primary.getPoolName() + "-replica-" + replicas.size());
+            pool.setReadOnly(true);
+            pool.setMetricsTrackerFactory(metrics);
+            replicas.add(pool);
+        }
+        return new ReadWritePools(primary, replicas, properties.getMaxLag(), properties.getHealthCheckInterval());
+    }
+
+    @Bean
+    public DataSource dataSource(ReadWritePools readWritePools) {
+        return new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(readWritePools));
+    }
+
+    private static HikariDataSource pool(Binder binder, DataSourceProperties dataSourceProperties,
+                                         String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setDriverClassName(dataSourceProperties.determineDriverClassName());
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        return pool;
+    }
+}
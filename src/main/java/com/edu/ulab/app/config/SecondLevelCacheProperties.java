@@ -0,0 +1,33 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Регионы кэша второго уровня Hibernate. Каждый регион, который использует приложение,
+ * должен быть описан здесь: неописанный регион остановит запуск.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.cache")
+public class SecondLevelCacheProperties {
+    private final Map<String, Region> regions = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Region {
+        /**
+         * Максимальное число записей в регионе.
+         */
+        private long maximumSize = 10_000;
+        /**
+         * Время жизни записи после записи в кэш. Пусто — без ограничения.
+         */
+        private Duration expireAfterWrite;
+    }
+}
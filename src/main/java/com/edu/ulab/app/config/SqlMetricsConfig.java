@@ -0,0 +1,63 @@
+package com.edu.ulab.app.config;
+
+import com.edu.ulab.app.metrics.SqlStatisticsInterceptor;
+import com.edu.ulab.app.metrics.SqlStatisticsListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Учёт SQL по HTTP-запросам: DataSource оборачивается в datasource-proxy,
+ * а перехватчик MVC публикует собранное за запрос в Micrometer.
+ * <p>
+ * Прокси стоит поверх пула, поэтому время запроса не включает ожидание соединения.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "app.sql-metrics", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class SqlMetricsConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+    private final SqlMetricsProperties properties;
+
+    public SqlMetricsConfig(MeterRegistry meterRegistry, SqlMetricsProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.properties = properties;
+    }
+
+    /**
+     * Статический, чтобы постпроцессор создавался раньше DataSource и не тянул за собой остальные бины.
+     */
+    @Bean
+    static BeanPostProcessor sqlStatisticsDataSourcePostProcessor(Environment environment) {
+        boolean countFetchedRows = environment.getProperty("app.sql-metrics.count-fetched-rows", Boolean.class, true);
+        SqlStatisticsListener listener = new SqlStatisticsListener();
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ProxyDataSource) {
+                    return bean;
+                }
+                ProxyDataSourceBuilder builder = ProxyDataSourceBuilder.create(dataSource)
+                        .name(beanName)
+                        .listener(listener);
+                if (countFetchedRows) {
+                    builder.proxyResultSet().methodListener(listener);
+                }
+                return builder.build();
+            }
+        };
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new SqlStatisticsInterceptor(meterRegistry, properties));
+    }
+}
@@ -0,0 +1,30 @@
+package com.edu.ulab.app.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Учёт SQL-запросов, выполненных за HTTP-запрос.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.sql-metrics")
+public class SqlMetricsProperties {
+    /**
+     * Оборачивать DataSource в datasource-proxy и публиковать метрики.
+     */
+    private boolean enabled = true;
+    /**
+     * Больше запросов за один HTTP-запрос - предупреждение в лог.
+     */
+    private int statementBudget = 20;
+    /**
+     * Столько выполнений одного и того же SQL за HTTP-запрос считается признаком N+1.
+     */
+    private int repeatedStatementThreshold = 5;
+    /**
+     * Считать прочитанные строки. Требует прокси над каждым ResultSet.
+     */
+    private boolean countFetchedRows = true;
+}
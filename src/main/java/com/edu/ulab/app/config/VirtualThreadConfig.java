@@ -0,0 +1,50 @@
+package com.edu.ulab.app.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Обработка HTTP-запросов Tomcat на виртуальных потоках ({@code app.web.virtual-threads.enabled=true}).
+ * <p>
+ * Каждый запрос, а с ним и все JDBC-вызовы фасада, выполняется в собственном виртуальном потоке,
+ * поэтому {@code server.tomcat.threads.max} больше не ограничивает параллельность: её держат
+ * {@code server.tomcat.max-connections}, а доступ к базе - размер пула Hikari. Требует Java 21;
+ * исполнитель создаётся через рефлексию, чтобы сборка оставалась на Java 17.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "app.web.virtual-threads", name = "enabled", havingValue = "true")
+public class VirtualThreadConfig implements DisposableBean {
+    private final ExecutorService executor = newVirtualThreadPerTaskExecutor();
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> {
+            protocolHandler.setExecutor(executor);
+            log.info("Tomcat requests run on virtual threads");
+        };
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdown();
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("app.web.virtual-threads.enabled requires Java 21, running on "
+                    + Runtime.version(), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Could not create virtual thread executor", e);
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.edu.ulab.app.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пул основного сервера и пулы реплик с проверкой их состояния.
+ * <p>
+ * Реплики проверяются по расписанию одним запросом: недоступная реплика или реплика, отставшая
+ * больше {@code maxLag}, исключается из перебора до следующей успешной проверки. Отставание считается
+ * нулевым, если реплика применила всё полученное WAL, иначе это время с последней применённой транзакции.
+ * На сервере, который не находится в recovery, отставание тоже нулевое.
+ */
+@Slf4j
+public class ReadWritePools implements AutoCloseable {
+    static final String PRIMARY = "primary";
+    static final String LAG_SQL = """
+            SELECT CASE
+                       WHEN NOT pg_is_in_recovery() THEN 0
+                       WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0
+                       ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0)
+                   END""";
+
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private final ScheduledExecutorService scheduler;
+
+    public ReadWritePools(HikariDataSource primary, List<HikariDataSource> replicas,
+                          Duration maxLag, Duration healthCheckInterval) {
+        this.primary = primary;
+        this.replicas = replicas.stream()
+                .map(Replica::new)
+                .toList();
+        this.maxLagMillis = maxLag.toMillis();
+        checkReplicas();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-health-check");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = healthCheckInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::checkReplicas, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+
+    public HikariDataSource primary() {
+        return primary;
+    }
+
+    Map<Object, Object> targets() {
+        Map<Object, Object> targets = new LinkedHashMap<>();
+        targets.put(PRIMARY, primary);
+        for (Replica replica : replicas) {
+            targets.put(replica.name, replica.dataSource);
+        }
+        return targets;
+    }
+
+    /**
+     * Следующая исправная реплика по кругу или {@code null}, если исправных нет.
+     */
+    String nextReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = cursor.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get(Math.floorMod(start + i, size));
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    void checkReplicas() {
+        for (Replica replica : replicas) {
+            boolean healthy;
+            try {
+                long lagMillis = lagMillis(replica.dataSource);
+                healthy = lagMillis <= maxLagMillis;
+                if (!healthy && replica.healthy) {
+                    log.warn("Replica {} is {} ms behind, reads go elsewhere", replica.name, lagMillis);
+                }
+            } catch (SQLException | RuntimeException e) {
+                healthy = false;
+                if (replica.healthy) {
+                    log.warn("Replica {} is unavailable, reads go elsewhere: {}", replica.name, e.getMessage());
+                }
+            }
+            if (healthy && !replica.healthy) {
+                log.info("Replica {} is back in rotation", replica.name);
+            }
+            replica.healthy = healthy;
+        }
+    }
+
+    @Override
+    public void close() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+        for (Replica replica : replicas) {
+            replica.dataSource.close();
+        }
+        primary.close();
+    }
+
+    private static long lagMillis(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(LAG_SQL)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private static final class Replica {
+        final String name;
+        final HikariDataSource dataSource;
+        // до первой проверки реплика считается недоступной
+        volatile boolean healthy;
+
+        Replica(HikariDataSource dataSource) {
+            this.name = dataSource.getPoolName();
+            this.dataSource = dataSource;
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.edu.ulab.app.datasource;
+
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Отдаёт соединение реплики внутри read-only транзакции и соединение основного сервера в остальных случаях.
+ * <p>
+ * Признак read-only выставляется уже после того, как менеджер транзакций взял соединение,
+ * поэтому источник используется только через {@link LazyConnectionDataSourceProxy}: реальное соединение
+ * берётся при первом запросе, когда признак уже известен. Если исправных реплик нет, чтение идёт
+ * на основной сервер.
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+    private final ReadWritePools pools;
+
+    public ReadWriteRoutingDataSource(ReadWritePools pools) {
+        this.pools = pools;
+        setTargetDataSources(pools.targets());
+        setDefaultTargetDataSource(pools.primary());
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            String replica = pools.nextReplica();
+            if (replica != null) {
+                return replica;
+            }
+        }
+        return ReadWritePools.PRIMARY;
+    }
+}
@@ -9,4 +9,5 @@ public class BookDto {
     private String title;
     private String author;
     private long pageCount;
+    private Long version;
 }
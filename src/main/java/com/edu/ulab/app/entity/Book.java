@@ -3,6 +3,9 @@ package com.edu.ulab.app.entity;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.GenericGenerator;
 
 import javax.persistence.*;
 
@@ -10,11 +13,13 @@ import javax.persistence.*;
 @Setter
 @NoArgsConstructor
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "book")
 @Table(name = "book", schema = "ulab_edu")
 public class Book {
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sequence")
-    @SequenceGenerator(name = "sequence", sequenceName = "sequence", allocationSize = 100)
+    @GeneratedValue(generator = "book_id")
+    @GenericGenerator(name = "book_id", strategy = "com.edu.ulab.app.id.IdAllocatorGenerator")
     private Long id;
 
     @Column(nullable = false)
@@ -29,5 +34,6 @@ public class Book {
     @Column(nullable = false)
     private long pageCount;
 
-
+    @Version
+    private Long version;
 }
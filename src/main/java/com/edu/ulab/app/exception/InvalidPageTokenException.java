@@ -0,0 +1,7 @@
+package com.edu.ulab.app.exception;
+
+public class InvalidPageTokenException extends RuntimeException {
+    public InvalidPageTokenException(String message) {
+        super(message);
+    }
+}
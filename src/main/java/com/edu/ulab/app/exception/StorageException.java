@@ -0,0 +1,7 @@
+package com.edu.ulab.app.exception;
+
+public class StorageException extends RuntimeException {
+    public StorageException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
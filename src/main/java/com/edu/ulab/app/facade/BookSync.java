@@ -0,0 +1,97 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.dto.BookDto;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Разница между сохранёнными книгами пользователя и запрошенным набором.
+ * <p>
+ * Запрошенная книга сопоставляется с сохранённой по id, а без id по паре title и author.
+ * Совпавшая книга обновляется, только если её поля изменились; несопоставленные запрошенные книги
+ * вставляются, несопоставленные сохранённые удаляются. Общая для блокирующего и реактивного фасадов.
+ *
+ * @param keptIds  id сохранённых книг, оставшихся у пользователя, в порядке запроса
+ * @param toCreate новые книги без id
+ * @param toUpdate изменившиеся книги с id и версией сохранённой книги
+ * @param toDelete id сохранённых книг, которых нет в запросе
+ */
+record BookSync(List<Long> keptIds, List<BookDto> toCreate, List<BookDto> toUpdate, Collection<Long> toDelete) {
+
+    static BookSync plan(Long userId, List<BookDto> stored, List<BookDto> requested) {
+        Map<Long, BookDto> unmatched = new LinkedHashMap<>();
+        Map<BookKey, Deque<Long>> idsByKey = new HashMap<>();
+        for (BookDto book : stored) {
+            unmatched.put(book.getId(), book);
+            idsByKey.computeIfAbsent(BookKey.of(book), key -> new ArrayDeque<>()).add(book.getId());
+        }
+
+        List<Long> keptIds = new ArrayList<>(requested.size());
+        List<BookDto> toUpdate = new ArrayList<>();
+        List<BookDto> toCreate = new ArrayList<>();
+        for (BookDto book : requested) {
+            book.setUserId(userId);
+            BookDto match = book.getId() != null
+                    ? unmatched.remove(book.getId())
+                    : takeByKey(BookKey.of(book), unmatched, idsByKey);
+            if (match == null) {
+                // id чужой или удалённой книги не переиспользуем
+                book.setId(null);
+                toCreate.add(book);
+                continue;
+            }
+            keptIds.add(match.getId());
+            if (!sameContent(match, book)) {
+                book.setId(match.getId());
+                book.setVersion(match.getVersion());
+                toUpdate.add(book);
+            }
+        }
+        return new BookSync(keptIds, toCreate, toUpdate, unmatched.keySet());
+    }
+
+    /**
+     * Id книг пользователя после синхронизации: оставшиеся, затем вставленные.
+     */
+    List<Long> bookIds(List<BookDto> created) {
+        List<Long> bookIds = new ArrayList<>(keptIds.size() + created.size());
+        bookIds.addAll(keptIds);
+        created.forEach(book -> bookIds.add(book.getId()));
+        return bookIds;
+    }
+
+    private static BookDto takeByKey(BookKey key, Map<Long, BookDto> unmatched, Map<BookKey, Deque<Long>> idsByKey) {
+        Deque<Long> ids = idsByKey.get(key);
+        if (ids == null) {
+            return null;
+        }
+        // id могли уже забрать запросы с явным id
+        for (Long id = ids.poll(); id != null; id = ids.poll()) {
+            BookDto stored = unmatched.remove(id);
+            if (stored != null) {
+                return stored;
+            }
+        }
+        return null;
+    }
+
+    private static boolean sameContent(BookDto stored, BookDto requested) {
+        return Objects.equals(stored.getTitle(), requested.getTitle())
+                && Objects.equals(stored.getAuthor(), requested.getAuthor())
+                && stored.getPageCount() == requested.getPageCount();
+    }
+
+    private record BookKey(String title, String author) {
+        static BookKey of(BookDto bookDto) {
+            return new BookKey(bookDto.getTitle(), bookDto.getAuthor());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.exception.InvalidPageTokenException;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * Непрозрачный курсор keyset-пагинации: версия формата и id последней записи страницы в base64url.
+ * Клиент не должен разбирать токен, поэтому формат можно менять, увеличив версию.
+ */
+public final class PageToken {
+    private static final byte VERSION = 1;
+    private static final int LENGTH = 1 + Long.BYTES;
+
+    private PageToken() {
+    }
+
+    public static String encode(long lastId) {
+        ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+                .put(VERSION)
+                .putLong(lastId);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * @return id, после которого начинается страница, или 0 для первой страницы
+     * @throws InvalidPageTokenException если токен повреждён
+     */
+    public static long decode(String token) {
+        if (token == null || token.isEmpty()) {
+            return 0L;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(token);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidPageTokenException("invalid page token: " + token);
+        }
+        if (bytes.length != LENGTH || bytes[0] != VERSION) {
+            throw new InvalidPageTokenException("invalid page token: " + token);
+        }
+        return ByteBuffer.wrap(bytes, 1, Long.BYTES).getLong();
+    }
+}
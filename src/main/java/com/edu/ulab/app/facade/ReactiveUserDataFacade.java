@@ -0,0 +1,211 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.cache.SecondLevelCacheEviction;
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.reactive.ReactiveBookRepository;
+import com.edu.ulab.app.reactive.ReactiveUserRepository;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Реактивный вариант {@link UserDataFacade} поверх R2DBC.
+ * <p>
+ * Транзакции задаются через {@link TransactionalOperator}, а не {@code @Transactional}.
+ * Идентификаторы выдаёт тот же {@link IdAllocator}, что и блокирующему API; пополнение его блока
+ * ходит в базу через JDBC, поэтому выполняется на {@link Schedulers#boundedElastic()}.
+ * <p>
+ * Записи идут мимо Hibernate, поэтому после коммита затронутые пользователь и книги сбрасываются
+ * из кэша второго уровня через {@link SecondLevelCacheEviction}.
+ */
+@Slf4j
+@Component
+public class ReactiveUserDataFacade {
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveBookRepository bookRepository;
+    private final UserMapper userMapper;
+    private final BookMapper bookMapper;
+    private final IdAllocator idAllocator;
+    private final TransactionalOperator transactionalOperator;
+    private final UserBookResponseCache userBookResponseCache;
+    private final OptimisticLockProperties optimisticLockProperties;
+    private final SecondLevelCacheEviction secondLevelCacheEviction;
+
+    public ReactiveUserDataFacade(ReactiveUserRepository userRepository,
+                                  ReactiveBookRepository bookRepository,
+                                  UserMapper userMapper,
+                                  BookMapper bookMapper,
+                                  IdAllocator idAllocator,
+                                  TransactionalOperator reactiveTransactionalOperator,
+                                  UserBookResponseCache userBookResponseCache,
+                                  OptimisticLockProperties optimisticLockProperties,
+                                  SecondLevelCacheEviction secondLevelCacheEviction) {
+        this.userRepository = userRepository;
+        this.bookRepository = bookRepository;
+        this.userMapper = userMapper;
+        this.bookMapper = bookMapper;
+        this.idAllocator = idAllocator;
+        this.transactionalOperator = reactiveTransactionalOperator;
+        this.userBookResponseCache = userBookResponseCache;
+        this.optimisticLockProperties = optimisticLockProperties;
+        this.secondLevelCacheEviction = secondLevelCacheEviction;
+    }
+
+    public Mono<UserBookResponse> createUserWithBooks(UserBookRequest userBookRequest) {
+        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+        List<BookDto> bookDtos = toBookDtos(userBookRequest);
+        return allocateIds(bookDtos.size() + 1)
+                .flatMap(ids -> {
+                    userDto.setId(ids[0]);
+                    assignIds(bookDtos, ids, 1, userDto.getId());
+                    return userRepository.insert(userDto)
+                            .then(bookRepository.insertAll(bookDtos));
+                })
+                .as(transactionalOperator::transactional)
+                .map(inserted -> response(userDto.getId(), bookIds(bookDtos)))
+                .doOnSuccess(response -> {
+                    secondLevelCacheEviction.evict(response.getUserId(), List.of());
+                    log.debug("Created user with books: {}", response);
+                });
+    }
+
+    /**
+     * Пользователь обновляется по версии, как в {@link UserDataFacade#updateUserWithBooks}:
+     * при конфликте транзакция повторяется целиком с перечитанной версией.
+     */
+    public Mono<UserBookResponse> updateUserWithBooks(UserBookRequest userBookRequest, Long id) {
+        return Mono.defer(() -> updateOnce(userBookRequest, id))
+                .retryWhen(Retry.backoff(optimisticLockProperties.getMaxAttempts() - 1L, optimisticLockProperties.getBackoff())
+                        .filter(OptimisticLockingFailureException.class::isInstance)
+                        .doBeforeRetry(signal -> log.debug("User {} was modified concurrently, attempt {} of {}",
+                                id, signal.totalRetries() + 1, optimisticLockProperties.getMaxAttempts()))
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnSuccess(response -> {
+                    userBookResponseCache.invalidateUser(id);
+                    log.debug("Updated user with books: {}", response);
+                });
+    }
+
+    private Mono<UserBookResponse> updateOnce(UserBookRequest userBookRequest, Long id) {
+        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+        userDto.setId(id);
+        List<BookDto> bookDtos = toBookDtos(userBookRequest);
+        List<Long> touchedBookIds = new ArrayList<>();
+        return userRepository.findVersion(id)
+                .switchIfEmpty(Mono.error(() -> new PersonNotFoundException("user with id " + id + " not found")))
+                .flatMap(version -> {
+                    userDto.setVersion(version);
+                    return userRepository.update(userDto);
+                })
+                .flatMap(updated -> updated == 0
+                        ? Mono.error(new OptimisticLockingFailureException("user with id " + id + " was modified concurrently"))
+                        : bookRepository.findByUserId(id).collectList())
+                .flatMap(stored -> syncBooks(id, stored, bookDtos, touchedBookIds))
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(response -> secondLevelCacheEviction.evict(id, touchedBookIds));
+    }
+
+    /**
+     * Пишет только разницу между сохранёнными и запрошенными книгами (см. {@link BookSync}).
+     */
+    private Mono<UserBookResponse> syncBooks(Long userId, List<BookDto> stored, List<BookDto> bookDtos,
+                                             List<Long> touchedBookIds) {
+        BookSync sync = BookSync.plan(userId, stored, bookDtos);
+        touchedBookIds.addAll(sync.toDelete());
+        sync.toUpdate().forEach(book -> touchedBookIds.add(book.getId()));
+        return bookRepository.deleteByIds(sync.toDelete())
+                .then(bookRepository.updateAll(sync.toUpdate()))
+                .then(allocateIds(sync.toCreate().size()))
+                .flatMap(ids -> {
+                    assignIds(sync.toCreate(), ids, 0, userId);
+                    return bookRepository.insertAll(sync.toCreate());
+                })
+                .map(inserted -> response(userId, sync.bookIds(sync.toCreate())))
+                .doOnSuccess(response -> log.debug("Synced books of user {}: {} created, {} updated, {} deleted",
+                        userId, sync.toCreate().size(), sync.toUpdate().size(), sync.toDelete().size()));
+    }
+
+    public Mono<UserBookResponse> getUserWithBooks(Long userId) {
+        return getUserBookIds(userId)
+                .collectList()
+                .map(bookIds -> response(userId, bookIds));
+    }
+
+    /**
+     * Id книг пользователя потоком, по мере чтения из базы.
+     */
+    public Flux<Long> getUserBookIds(Long userId) {
+        return userRepository.findUserBookIds(userId)
+                .switchIfEmpty(Flux.defer(() -> Flux.error(new PersonNotFoundException("user with id " + userId + " not found"))))
+                .filter(Optional::isPresent)
+                .map(Optional::get);
+    }
+
+    public Mono<Void> deleteUserWithBooks(Long userId) {
+        List<Long> deletedBookIds = new ArrayList<>();
+        return bookRepository.deleteByUserId(userId)
+                .doOnNext(deletedBookIds::add)
+                .then(userRepository.deleteById(userId))
+                .flatMap(deleted -> deleted == 0
+                        ? Mono.<Void>error(new PersonNotFoundException("user with id " + userId + " not found"))
+                        : Mono.<Void>empty())
+                .as(transactionalOperator::transactional)
+                .doOnSuccess(done -> {
+                    secondLevelCacheEviction.evict(userId, deletedBookIds);
+                    userBookResponseCache.invalidateUser(userId);
+                    log.debug("Deleted user with books: {}", userId);
+                });
+    }
+
+    private Mono<long[]> allocateIds(int count) {
+        return Mono.fromCallable(() -> idAllocator.nextIds(count))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private List<BookDto> toBookDtos(UserBookRequest userBookRequest) {
+        return userBookRequest.getBookRequests()
+                .stream()
+                .filter(Objects::nonNull)
+                .map(bookMapper::bookRequestToBookDto)
+                .toList();
+    }
+
+    private static void assignIds(List<BookDto> bookDtos, long[] ids, int offset, Long userId) {
+        for (int i = 0; i < bookDtos.size(); i++) {
+            bookDtos.get(i).setId(ids[offset + i]);
+            bookDtos.get(i).setUserId(userId);
+        }
+    }
+
+    private static List<Long> bookIds(List<BookDto> bookDtos) {
+        return bookDtos.stream()
+                .map(BookDto::getId)
+                .toList();
+    }
+
+    private static UserBookResponse response(Long userId, List<Long> bookIds) {
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(bookIds)
+                .build();
+    }
+}
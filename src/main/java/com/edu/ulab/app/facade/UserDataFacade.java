@@ -1,77 +1,140 @@
 package com.edu.ulab.app.facade;
 
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.config.PagingProperties;
 import com.edu.ulab.app.dto.BookDto;
 import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.mapper.UserMapper;
 
-import com.edu.ulab.app.service.impl.BookServiceImpl;
-import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
-import com.edu.ulab.app.service.impl.UserServiceImpl;
-import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.PageResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
 import java.util.Objects;
-
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Собирает операции над пользователем и его книгами.
+ * <p>
+ * Чтение идёт в read-only транзакциях: Hibernate не делает flush и не хранит снимки загруженных сущностей
+ * для dirty checking. Запись открывает транзакцию только вокруг вызовов сервисов, разбор запроса
+ * и логирование идут до неё и не держат соединение.
+ */
 @Slf4j
 @Component
-@Transactional
 public class UserDataFacade {
-    private final UserServiceImpl userService;
-    private final BookServiceImpl bookService;
+    private final UserService userService;
+    private final BookService bookService;
     private final UserMapper userMapper;
     private final BookMapper bookMapper;
+    private final UserBookResponseCache userBookResponseCache;
+    private final PagingProperties pagingProperties;
+    private final OptimisticLockProperties optimisticLockProperties;
+    private final TransactionTemplate transactionTemplate;
 
-    public UserDataFacade(UserServiceImpl userService,
-                          BookServiceImpl bookService,
+    public UserDataFacade(UserService userService,
+                          BookService bookService,
                           UserMapper userMapper,
-                          BookMapper bookMapper) {
+                          BookMapper bookMapper,
+                          UserBookResponseCache userBookResponseCache,
+                          PagingProperties pagingProperties,
+                          OptimisticLockProperties optimisticLockProperties,
+                          PlatformTransactionManager transactionManager) {
         this.userService = userService;
         this.bookService = bookService;
         this.userMapper = userMapper;
         this.bookMapper = bookMapper;
+        this.userBookResponseCache = userBookResponseCache;
+        this.pagingProperties = pagingProperties;
+        this.optimisticLockProperties = optimisticLockProperties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public UserBookResponse createUserWithBooks(UserBookRequest userBookRequest) {
-        log.info("Got user book create request: {}", userBookRequest);
+        log.debug("Got user book create request: {}", userBookRequest);
         UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        log.info("Mapped user request: {}", userDto);
-
-        UserDto createdUser = userService.createUser(userDto);
-        log.info("Created user: {}", createdUser);
-
-        return getUserBookResponse(userBookRequest, createdUser);
+        List<BookDto> bookDtos = mapBooks(userBookRequest);
+        log.debug("Mapped user request: {}, books: {}", userDto, bookDtos);
+
+        UserBookResponse response = transactionTemplate.execute(status -> {
+            UserDto createdUser = userService.createUser(userDto);
+            return saveBooks(createdUser, bookDtos);
+        });
+        log.debug("Created user with books: {}", response);
+        return response;
     }
 
+    /**
+     * Обновление идёт без блокировки строк. Если параллельная транзакция успела изменить пользователя,
+     * транзакция откатывается и повторяется целиком с перечитанной версией, пока не кончатся попытки.
+     */
     public UserBookResponse updateUserWithBooks(UserBookRequest userBookRequest, Long id) {
-        log.info("Got user book update request: {}", userBookRequest);
-        UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
-        userDto.setId(id);
-        log.info("Set id and mapped user request: {}", userDto);
-
-        UserDto updatedUser = userService.updateUser(userDto);
-        log.info("Updated user: {}", updatedUser);
+        log.debug("Got user book update request: {}", userBookRequest);
+        for (int attempt = 1; ; attempt++) {
+            // DTO собираются заново: сервисы записывают в них id и версию
+            UserDto userDto = userMapper.userRequestToUserDto(userBookRequest.getUserRequest());
+            userDto.setId(id);
+            List<BookDto> bookDtos = mapBooks(userBookRequest);
+            log.debug("Set id and mapped user request: {}, books: {}", userDto, bookDtos);
+            try {
+                UserBookResponse response = transactionTemplate.execute(status -> {
+                    UserDto updatedUser = userService.updateUser(userDto);
+                    return syncBooks(updatedUser, bookDtos);
+                });
+                log.debug("Updated user with books: {}", response);
+                return response;
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= optimisticLockProperties.getMaxAttempts()) {
+                    throw e;
+                }
+                log.debug("User {} was modified concurrently, attempt {} of {}",
+                        id, attempt, optimisticLockProperties.getMaxAttempts());
+                backOff(attempt, e);
+            }
+        }
+    }
 
-        return getUserBookResponse(userBookRequest, updatedUser);
+    private void backOff(int attempt, OptimisticLockingFailureException conflict) {
+        long pause = optimisticLockProperties.getBackoff().toMillis() * attempt;
+        try {
+            Thread.sleep(pause + ThreadLocalRandom.current().nextLong(pause + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
     }
 
-    private UserBookResponse getUserBookResponse(UserBookRequest userBookRequest, UserDto userDto) {
-        List<Long> bookIdList = userBookRequest.getBookRequests()
+    private List<BookDto> mapBooks(UserBookRequest userBookRequest) {
+        return userBookRequest.getBookRequests()
                 .stream()
                 .filter(Objects::nonNull)
                 .map(bookMapper::bookRequestToBookDto)
-                .peek(bookDto -> bookDto.setUserId(userDto.getId()))
-                .peek(mappedBookDto -> log.info("mapped book: {}", mappedBookDto))
-                .map(bookService::createBook)
-                .peek(updatedBook -> log.info("Created book: {}", updatedBook))
+                .toList();
+    }
+
+    private UserBookResponse saveBooks(UserDto userDto, List<BookDto> bookDtos) {
+        bookDtos.forEach(bookDto -> {
+            // новые книги всегда получают свой id
+            bookDto.setId(null);
+            bookDto.setUserId(userDto.getId());
+        });
+        List<Long> bookIdList = bookService.createBooks(bookDtos)
+                .stream()
                 .map(BookDto::getId)
                 .toList();
-        log.info("Collected book ids: {}", bookIdList);
 
         return UserBookResponse.builder()
                 .userId(userDto.getId())
@@ -79,32 +142,84 @@ public class UserDataFacade {
                 .build();
     }
 
+    /**
+     * Приводит книги пользователя к запрошенному набору и пишет только разницу (см. {@link BookSync}).
+     * Удаление идёт первым: в JPA оно очищает контекст, и обновляемые книги загружаются уже после него.
+     */
+    private UserBookResponse syncBooks(UserDto userDto, List<BookDto> bookDtos) {
+        BookSync sync = BookSync.plan(userDto.getId(), bookService.getBooksByUserId(userDto.getId()), bookDtos);
+        int deleted = bookService.deleteBooksByIds(sync.toDelete());
+        bookService.updateBooks(sync.toUpdate());
+        List<BookDto> created = bookService.createBooks(sync.toCreate());
+        log.debug("Synced books of user {}: {} created, {} updated, {} deleted",
+                userDto.getId(), created.size(), sync.toUpdate().size(), deleted);
+
+        return UserBookResponse.builder()
+                .userId(userDto.getId())
+                .booksIdList(sync.bookIds(created))
+                .build();
+    }
+
+    @Transactional(readOnly = true)
     public UserBookResponse getUserWithBooks(Long userId) {
-        log.info("Received a request to get a user by id: {}", userId);
+        log.debug("Received a request to get a user by id: {}", userId);
 
-        UserDto userDto = userService.getUserById(userId);
-        log.info("Get user: {}", userDto);
+        return userBookResponseCache.get(userId, () -> loadUserWithBooks(userId));
+    }
 
-        List<Long> bookIdList = bookService.getBookIdByUserId(userId);
-        log.info("Get user's books id: {}", userDto);
+    private UserBookResponse loadUserWithBooks(Long userId) {
+        List<Long> bookIdList = userService.getUserBookIds(userId);
+        log.debug("Get user's books id: {}", bookIdList);
 
         return UserBookResponse.builder()
-                .userId(userDto.getId())
+                .userId(userId)
                 .booksIdList(bookIdList)
                 .build();
+    }
 
+    @Transactional(readOnly = true)
+    public PageResponse<UserDto> getUsers(String token, Integer size) {
+        int limit = pagingProperties.resolve(size);
+        return page(afterId -> userService.getUsersAfter(afterId, limit + 1), UserDto::getId, token, limit);
     }
 
+    @Transactional(readOnly = true)
+    public PageResponse<BookDto> getBooks(String token, Integer size) {
+        int limit = pagingProperties.resolve(size);
+        return page(afterId -> bookService.getBooksAfter(afterId, limit + 1), BookDto::getId, token, limit);
+    }
 
-    public void deleteUserWithBooks(Long userId) {
-        log.info("Received a request to delete a user with books by id: {}", userId);
-        UserDto userDto = userService.getUserById(userId);
-        log.info("Get user: {}", userDto);
-        bookService.deleteBookByUserId(userId);
-        log.info("Success deleted books by user id: {}", userId);
-        userService.deleteUserById(userDto.getId());
-        log.info("Success deleted user: {}", userDto);
+    @Transactional(readOnly = true)
+    public PageResponse<BookDto> getUserBooks(Long userId, String token, Integer size) {
+        int limit = pagingProperties.resolve(size);
+        return page(afterId -> bookService.getBooksByUserAfter(userId, afterId, limit + 1), BookDto::getId, token, limit);
+    }
 
+    /**
+     * Запрашивает на одну запись больше страницы: лишняя запись только говорит, что следующая страница есть,
+     * и избавляет от отдельного count-запроса.
+     */
+    private <T> PageResponse<T> page(Function<Long, List<T>> loader, ToLongFunction<T> idOf, String token, int limit) {
+        List<T> rows = loader.apply(PageToken.decode(token));
+        if (rows.size() <= limit) {
+            return PageResponse.<T>builder()
+                    .items(rows)
+                    .build();
+        }
+        List<T> items = rows.subList(0, limit);
+        return PageResponse.<T>builder()
+                .items(items)
+                .nextToken(PageToken.encode(idOf.applyAsLong(items.get(limit - 1))))
+                .build();
+    }
 
+    public void deleteUserWithBooks(Long userId) {
+        log.debug("Received a request to delete a user with books by id: {}", userId);
+        int deletedBooks = transactionTemplate.execute(status -> {
+            int deleted = bookService.deleteBookByUserId(userId);
+            userService.deleteUserById(userId);
+            return deleted;
+        });
+        log.debug("Success deleted user {} with {} books", userId, deletedBooks);
     }
 }
@@ -0,0 +1,108 @@
+package com.edu.ulab.app.id;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Выдаёт идентификаторы блоками из последовательности {@code sequence}.
+ * <p>
+ * Один вызов {@code nextval} резервирует блок {@code [hi * blockSize, hi * blockSize + blockSize - 1]},
+ * что совпадает со схемой hi/lo, которую использовал {@code @SequenceGenerator(allocationSize = 100)},
+ * поэтому блоки JDBC и JPA не пересекаются. Внутри блока идентификаторы выдаются без блокировок.
+ * Пополнение блока идёт под {@link ReentrantLock}, а не {@code synchronized}, чтобы запрос к базе
+ * не закреплял виртуальный поток за потоком-носителем.
+ */
+@Slf4j
+@Component
+public class IdAllocator {
+    public static final int BLOCK_SIZE = 100;
+    static final String NEXT_HI_SQL = "SELECT nextval('sequence')";
+
+    private final LongSupplier hiSource;
+    private final int blockSize;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = Block.EMPTY;
+
+    @Autowired
+    public IdAllocator(JdbcTemplate jdbcTemplate) {
+        this(() -> Objects.requireNonNull(jdbcTemplate.queryForObject(NEXT_HI_SQL, Long.class)), BLOCK_SIZE);
+    }
+
+    public IdAllocator(LongSupplier hiSource, int blockSize) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("block size must be positive: " + blockSize);
+        }
+        this.hiSource = hiSource;
+        this.blockSize = blockSize;
+    }
+
+    public long nextId() {
+        while (true) {
+            Block current = block;
+            long id = current.cursor.getAndIncrement();
+            if (id <= current.last) {
+                return id;
+            }
+            refill(current);
+        }
+    }
+
+    public long[] nextIds(int count) {
+        long[] ids = new long[count];
+        int filled = 0;
+        while (filled < count) {
+            Block current = block;
+            int wanted = count - filled;
+            long start = current.cursor.getAndAdd(wanted);
+            if (start > current.last) {
+                refill(current);
+                continue;
+            }
+            long end = Math.min(current.last, start + wanted - 1);
+            for (long id = start; id <= end; id++) {
+                ids[filled++] = id;
+            }
+        }
+        return ids;
+    }
+
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            if (block == exhausted) {
+                long hi = hiSource.getAsLong();
+                block = Block.of(hi, blockSize);
+                log.debug("Reserved id block [{}, {}]", block.first, block.last);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    private static final class Block {
+        static final Block EMPTY = new Block(1, 0);
+
+        final long first;
+        final long last;
+        final AtomicLong cursor;
+
+        private Block(long first, long last) {
+            this.first = first;
+            this.last = last;
+            this.cursor = new AtomicLong(first);
+        }
+
+        static Block of(long hi, int blockSize) {
+            long base = hi * blockSize;
+            // ноль не выдаём, как и legacy hi/lo генератор Hibernate
+            return new Block(base == 0 ? 1 : base, base + blockSize - 1);
+        }
+    }
+}
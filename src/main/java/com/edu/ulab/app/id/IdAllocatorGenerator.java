@@ -0,0 +1,77 @@
+package com.edu.ulab.app.id;
+
+import org.hibernate.HibernateException;
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.jdbc.spi.JdbcCoordinator;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Properties;
+
+/**
+ * Генератор идентификаторов Hibernate поверх {@link IdAllocator}.
+ * <p>
+ * Аллокатор приходит из настроек Hibernate по ключу {@link #ALLOCATOR}. Если его туда не положили
+ * (например, в {@code @DataJpaTest}), блоки резервируются через соединение текущей сессии по той же схеме hi/lo.
+ */
+public class IdAllocatorGenerator implements IdentifierGenerator {
+    /**
+     * Ключ настроек Hibernate, под которым лежит экземпляр {@link IdAllocator}.
+     */
+    public static final String ALLOCATOR = "app.id.allocator";
+
+    private final ThreadLocal<SharedSessionContractImplementor> currentSession = new ThreadLocal<>();
+    private final IdAllocator fallback = new IdAllocator(() -> nextHi(currentSession.get()), IdAllocator.BLOCK_SIZE);
+    private IdAllocator allocator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+        Object configured = serviceRegistry.getService(ConfigurationService.class).getSettings().get(ALLOCATOR);
+        if (configured != null && !(configured instanceof IdAllocator)) {
+            throw new MappingException(ALLOCATOR + " must be an IdAllocator, got " + configured.getClass().getName());
+        }
+        allocator = (IdAllocator) configured;
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) throws HibernateException {
+        if (allocator != null) {
+            return allocator.nextId();
+        }
+        currentSession.set(session);
+        try {
+            return fallback.nextId();
+        } finally {
+            currentSession.remove();
+        }
+    }
+
+    private static long nextHi(SharedSessionContractImplementor session) {
+        JdbcCoordinator jdbcCoordinator = session.getJdbcCoordinator();
+        try {
+            PreparedStatement statement = jdbcCoordinator.getStatementPreparer().prepareStatement(IdAllocator.NEXT_HI_SQL);
+            try {
+                ResultSet resultSet = jdbcCoordinator.getResultSetReturn().extract(statement);
+                try {
+                    resultSet.next();
+                    return resultSet.getLong(1);
+                } finally {
+                    jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(resultSet, statement);
+                }
+            } finally {
+                jdbcCoordinator.getLogicalConnection().getResourceRegistry().release(statement);
+                jdbcCoordinator.afterStatementExecution();
+            }
+        } catch (SQLException e) {
+            throw session.getJdbcServices().getSqlExceptionHelper()
+                    .convert(e, "could not get next sequence value", IdAllocator.NEXT_HI_SQL);
+        }
+    }
+}
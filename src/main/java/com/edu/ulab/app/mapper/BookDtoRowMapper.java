@@ -0,0 +1,31 @@
+package com.edu.ulab.app.mapper;
+
+import com.edu.ulab.app.dto.BookDto;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Читает строку таблицы book сразу в {@link BookDto} по номерам колонок, без рефлексии.
+ * Запрос должен выбирать колонки в порядке {@link #COLUMNS}.
+ */
+public final class BookDtoRowMapper implements RowMapper<BookDto> {
+    public static final String COLUMNS = "id, user_id, title, author, page_count, version";
+    public static final BookDtoRowMapper INSTANCE = new BookDtoRowMapper();
+
+    private BookDtoRowMapper() {
+    }
+
+    @Override
+    public BookDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(rs.getLong(1));
+        bookDto.setUserId(rs.getLong(2));
+        bookDto.setTitle(rs.getString(3));
+        bookDto.setAuthor(rs.getString(4));
+        bookDto.setPageCount(rs.getLong(5));
+        bookDto.setVersion(rs.getLong(6));
+        return bookDto;
+    }
+}
@@ -0,0 +1,30 @@
+package com.edu.ulab.app.mapper;
+
+import com.edu.ulab.app.dto.UserDto;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Читает строку таблицы person сразу в {@link UserDto} по номерам колонок, без рефлексии.
+ * Запрос должен выбирать колонки в порядке {@link #COLUMNS}.
+ */
+public final class UserDtoRowMapper implements RowMapper<UserDto> {
+    public static final String COLUMNS = "id, full_name, title, age, version";
+    public static final UserDtoRowMapper INSTANCE = new UserDtoRowMapper();
+
+    private UserDtoRowMapper() {
+    }
+
+    @Override
+    public UserDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        UserDto userDto = new UserDto();
+        userDto.setId(rs.getLong(1));
+        userDto.setFullName(rs.getString(2));
+        userDto.setTitle(rs.getString(3));
+        userDto.setAge(rs.getInt(4));
+        userDto.setVersion(rs.getLong(5));
+        return userDto;
+    }
+}
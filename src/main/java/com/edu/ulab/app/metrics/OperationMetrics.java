@@ -0,0 +1,101 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.exception.BookNotFoundException;
+import com.edu.ulab.app.exception.NotFoundException;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Время выполнения операций фасада и сервисов: таймер {@code app.operation} с тегами
+ * {@code layer}, {@code class} (конкретная реализация сервиса), {@code method} и {@code outcome}.
+ * Исходы: {@code success}, {@code not_found} и {@code error}; не найденные сущности
+ * дополнительно считает {@code app.operation.not.found}.
+ * <p>
+ * Гистограммы и SLO настраиваются в {@code management.metrics.distribution} по имени таймера.
+ * Метры кэшируются по методу и классу, чтобы не искать их в реестре на каждом вызове.
+ */
+@Aspect
+@Component
+public class OperationMetrics {
+    static final String TIMER = "app.operation";
+    static final String NOT_FOUND = "app.operation.not.found";
+
+    private final MeterRegistry registry;
+    private final Map<Key, Meters> meters = new ConcurrentHashMap<>();
+
+    public OperationMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("execution(public * com.edu.ulab.app.facade.UserDataFacade.*(..))")
+    public Object timeFacade(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "facade");
+    }
+
+    @Around("execution(public * com.edu.ulab.app.service.UserService+.*(..))"
+            + " || execution(public * com.edu.ulab.app.service.BookService+.*(..))")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, "service");
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        Meters operation = meters.computeIfAbsent(
+                new Key(((MethodSignature) joinPoint.getSignature()).getMethod(), ClassUtils.getUserClass(joinPoint.getTarget())),
+                key -> new Meters(layer, key));
+        long start = System.nanoTime();
+        Timer timer = operation.error;
+        try {
+            Object result = joinPoint.proceed();
+            timer = operation.success;
+            return result;
+        } catch (PersonNotFoundException | BookNotFoundException | NotFoundException e) {
+            timer = operation.notFound;
+            operation.notFoundCounter.increment();
+            throw e;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private record Key(Method method, Class<?> targetClass) {
+    }
+
+    private final class Meters {
+        final Timer success;
+        final Timer notFound;
+        final Timer error;
+        final Counter notFoundCounter;
+
+        Meters(String layer, Key key) {
+            String className = key.targetClass().getSimpleName();
+            String method = key.method().getName();
+            success = timer(layer, className, method, "success");
+            notFound = timer(layer, className, method, "not_found");
+            error = timer(layer, className, method, "error");
+            notFoundCounter = Counter.builder(NOT_FOUND)
+                    .description("Operations that did not find the requested user or book")
+                    .tags("layer", layer, "class", className, "method", method)
+                    .register(registry);
+        }
+
+        private Timer timer(String layer, String className, String method, String outcome) {
+            return Timer.builder(TIMER)
+                    .description("Facade and service operations")
+                    .tags("layer", layer, "class", className, "method", method, "outcome", outcome)
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.edu.ulab.app.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Счётчики SQL текущего HTTP-запроса. Привязаны к потоку, который обрабатывает запрос:
+ * запросы из других потоков (реактивный API, загрузка) сюда не попадают.
+ */
+public final class SqlStatistics {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private final Map<String, Integer> executionsBySql = new HashMap<>();
+    private int statements;
+    private long rows;
+    private long elapsedMillis;
+
+    static SqlStatistics start() {
+        SqlStatistics statistics = new SqlStatistics();
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    static SqlStatistics finish() {
+        SqlStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    void executed(String sql, long elapsedMillis, long affectedRows) {
+        statements++;
+        this.elapsedMillis += elapsedMillis;
+        rows += affectedRows;
+        executionsBySql.merge(sql, 1, Integer::sum);
+    }
+
+    void fetched() {
+        rows++;
+    }
+
+    public int getStatements() {
+        return statements;
+    }
+
+    /**
+     * Изменённые строки для DML и прочитанные строки для select, если их подсчёт включён.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    /**
+     * Чаще всего повторявшийся SQL или {@code null}, если запросов не было.
+     */
+    Map.Entry<String, Integer> mostRepeated() {
+        Map.Entry<String, Integer> result = null;
+        for (Map.Entry<String, Integer> entry : executionsBySql.entrySet()) {
+            if (result == null || entry.getValue() > result.getValue()) {
+                result = entry;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,94 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.SqlMetricsProperties;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Собирает {@link SqlStatistics} на время обработки запроса контроллером и публикует их
+ * с тегами {@code method} и {@code uri} (шаблон пути, как у {@code http.server.requests}).
+ * <p>
+ * Если запрос превысил бюджет запросов или выполнил один и тот же SQL много раз (похоже на N+1),
+ * в лог пишется предупреждение с requestId.
+ */
+@Slf4j
+public class SqlStatisticsInterceptor implements AsyncHandlerInterceptor {
+    static final String STATEMENTS = "app.sql.statements";
+    static final String ROWS = "app.sql.rows";
+    static final String TIME = "app.sql.time";
+    static final String BUDGET_EXCEEDED = "app.sql.budget.exceeded";
+    static final String REPEATED = "app.sql.repeated";
+
+    private final MeterRegistry registry;
+    private final SqlMetricsProperties properties;
+
+    public SqlStatisticsInterceptor(MeterRegistry registry, SqlMetricsProperties properties) {
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlStatistics.start();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // ответ допишет другой поток, его запросы сюда уже не попадут
+        SqlStatistics.finish();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlStatistics statistics = SqlStatistics.finish();
+        if (statistics == null) {
+            return;
+        }
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri(request));
+        DistributionSummary.builder(STATEMENTS)
+                .description("SQL statements per HTTP request")
+                .tags(tags)
+                .register(registry)
+                .record(statistics.getStatements());
+        DistributionSummary.builder(ROWS)
+                .description("Rows changed or fetched per HTTP request")
+                .tags(tags)
+                .register(registry)
+                .record(statistics.getRows());
+        Timer.builder(TIME)
+                .description("JDBC time per HTTP request")
+                .tags(tags)
+                .register(registry)
+                .record(Duration.ofMillis(statistics.getElapsedMillis()));
+
+        if (statistics.getStatements() > properties.getStatementBudget()) {
+            registry.counter(BUDGET_EXCEEDED, tags).increment();
+            log.warn("Request {} {} [requestId={}] executed {} SQL statements, budget is {}",
+                    request.getMethod(), uri(request), MDC.get("requestId"),
+                    statistics.getStatements(), properties.getStatementBudget());
+        }
+        Map.Entry<String, Integer> repeated = statistics.mostRepeated();
+        if (repeated != null && repeated.getValue() >= properties.getRepeatedStatementThreshold()) {
+            registry.counter(REPEATED, tags).increment();
+            log.warn("Request {} {} [requestId={}] executed the same SQL {} times, possible N+1: {}",
+                    request.getMethod(), uri(request), MDC.get("requestId"), repeated.getValue(), repeated.getKey());
+        }
+    }
+
+    private static String uri(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern == null ? "UNKNOWN" : pattern.toString();
+    }
+}
@@ -0,0 +1,79 @@
+package com.edu.ulab.app.metrics;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.MethodExecutionContext;
+import net.ttddyy.dsproxy.listener.MethodExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Пополняет {@link SqlStatistics} текущего потока. Пакетное выполнение считается одним запросом.
+ */
+public class SqlStatisticsListener implements QueryExecutionListener, MethodExecutionListener {
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        SqlStatistics statistics = SqlStatistics.current();
+        if (statistics == null) {
+            return;
+        }
+        String sql = queryInfoList.isEmpty() ? "" : queryInfoList.get(0).getQuery();
+        statistics.executed(sql, execInfo.getElapsedTime(), affectedRows(execInfo.getResult()));
+    }
+
+    @Override
+    public void beforeMethod(MethodExecutionContext executionContext) {
+    }
+
+    @Override
+    public void afterMethod(MethodExecutionContext executionContext) {
+        if (executionContext.getTarget() instanceof ResultSet
+                && "next".equals(executionContext.getMethod().getName())
+                && Boolean.TRUE.equals(executionContext.getResult())) {
+            SqlStatistics statistics = SqlStatistics.current();
+            if (statistics != null) {
+                statistics.fetched();
+            }
+        }
+    }
+
+    /**
+     * Число затронутых строк по результату {@code executeUpdate} или {@code executeBatch}.
+     * <p>
+     * С {@code reWriteBatchedInserts=true} драйвер PostgreSQL склеивает пакет INSERT в многострочные
+     * запросы и возвращает {@link Statement#SUCCESS_NO_INFO} на каждый элемент пакета. Такой элемент
+     * считается одной строкой: пакетные INSERT приложения вставляют по строке на элемент.
+     * {@link Statement#EXECUTE_FAILED} строк не добавляет.
+     */
+    static long affectedRows(Object result) {
+        if (result instanceof Integer count) {
+            return rows(count);
+        }
+        if (result instanceof Long count) {
+            return rows(count);
+        }
+        long rows = 0;
+        if (result instanceof int[] counts) {
+            for (int count : counts) {
+                rows += rows(count);
+            }
+        } else if (result instanceof long[] counts) {
+            for (long count : counts) {
+                rows += rows(count);
+            }
+        }
+        return rows;
+    }
+
+    private static long rows(long count) {
+        return count == Statement.SUCCESS_NO_INFO ? 1 : Math.max(count, 0);
+    }
+}
@@ -0,0 +1,145 @@
+package com.edu.ulab.app.pool;
+
+import com.edu.ulab.app.config.AdaptivePoolProperties;
+import com.zaxxer.hikari.HikariConfigMXBean;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Меняет {@code maximumPoolSize} пула Hikari на ходу.
+ * <p>
+ * Раз в интервал берёт из метрик Hikari среднее ожидание соединения ({@code hikaricp.connections.acquire})
+ * и среднее время, на которое соединение занимают ({@code hikaricp.connections.usage}), за прошедший интервал.
+ * Пул растёт, когда запросы ждут соединение, а база отвечает быстро, и медленно сжимается,
+ * когда ожидания нет и соединения простаивают.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.pool.adaptive", name = "enabled", havingValue = "true")
+public class AdaptivePoolSizer {
+    private final DataSource dataSource;
+    private final MeterRegistry registry;
+    private final AdaptivePoolProperties properties;
+
+    private ScheduledExecutorService scheduler;
+    private HikariDataSource hikari;
+    private Sample previousAcquire = Sample.EMPTY;
+    private Sample previousUsage = Sample.EMPTY;
+
+    public AdaptivePoolSizer(DataSource dataSource, MeterRegistry registry, AdaptivePoolProperties properties) {
+        this.dataSource = dataSource;
+        this.registry = registry;
+        this.properties = properties;
+    }
+
+    @PostConstruct
+    public void start() {
+        try {
+            hikari = dataSource.unwrap(HikariDataSource.class);
+        } catch (SQLException e) {
+            log.warn("Adaptive pool sizing is disabled: DataSource is not a Hikari pool");
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "adaptive-pool-sizer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long intervalMillis = properties.getInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::resize, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+        log.info("Adaptive pool sizing started for {}: {}..{} connections",
+                hikari.getPoolName(), properties.getMinSize(), properties.getMaxSize());
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    void resize() {
+        try {
+            HikariPoolMXBean pool = hikari.getHikariPoolMXBean();
+            if (pool == null) {
+                // пул ещё не запущен
+                return;
+            }
+            Sample acquire = sample("hikaricp.connections.acquire");
+            Sample usage = sample("hikaricp.connections.usage");
+            double waitMillis = acquire.meanMillisSince(previousAcquire);
+            double usageMillis = usage.meanMillisSince(previousUsage);
+            previousAcquire = acquire;
+            previousUsage = usage;
+
+            HikariConfigMXBean config = hikari.getHikariConfigMXBean();
+            int current = config.getMaximumPoolSize();
+            int next = nextSize(current, waitMillis, usageMillis, pool.getThreadsAwaitingConnection(),
+                    pool.getIdleConnections(), properties);
+            if (next == current) {
+                return;
+            }
+            if (config.getMinimumIdle() > next) {
+                config.setMinimumIdle(next);
+            }
+            config.setMaximumPoolSize(next);
+            log.info("Pool {} resized {} -> {}: wait {} ms, usage {} ms", hikari.getPoolName(), current, next,
+                    String.format("%.2f", waitMillis), String.format("%.2f", usageMillis));
+        } catch (RuntimeException e) {
+            log.warn("Adaptive pool sizing failed", e);
+        }
+    }
+
+    /**
+     * Новый размер пула по средним за интервал.
+     *
+     * @param waitMillis  среднее ожидание соединения
+     * @param usageMillis среднее время, на которое соединение занимали
+     * @param awaiting    потоков ждут соединение прямо сейчас
+     * @param idle        простаивающих соединений
+     */
+    static int nextSize(int current, double waitMillis, double usageMillis, int awaiting, int idle,
+                        AdaptivePoolProperties properties) {
+        int min = properties.getMinSize();
+        int max = properties.getMaxSize();
+        double targetWait = properties.getTargetWait().toNanos() / 1e6;
+        double latencyCeiling = properties.getLatencyCeiling().toNanos() / 1e6;
+        int size = Math.max(min, Math.min(max, current));
+
+        boolean starving = waitMillis > targetWait || awaiting > 0;
+        if (starving) {
+            return usageMillis < latencyCeiling ? Math.min(max, size + properties.getStep()) : size;
+        }
+        if (waitMillis < targetWait / 4 && idle > properties.getStep()) {
+            return Math.max(min, size - 1);
+        }
+        return size;
+    }
+
+    private Sample sample(String name) {
+        Timer timer = registry.find(name).tag("pool", hikari.getPoolName()).timer();
+        return timer == null ? Sample.EMPTY : new Sample(timer.count(), timer.totalTime(TimeUnit.MILLISECONDS));
+    }
+
+    private record Sample(long count, double totalMillis) {
+        static final Sample EMPTY = new Sample(0, 0);
+
+        double meanMillisSince(Sample previous) {
+            long calls = count - previous.count;
+            return calls <= 0 ? 0 : (totalMillis - previous.totalMillis) / calls;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.dto.BookDto;
+import io.r2dbc.spi.Result;
+import io.r2dbc.spi.Statement;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Таблица book через R2DBC.
+ */
+@Repository
+public class ReactiveBookRepository {
+    private static final String INSERT_SQL =
+            "INSERT INTO ulab_edu.book (id, user_id, title, author, page_count) VALUES ($1, $2, $3, $4, $5)";
+    private static final String UPDATE_SQL = "UPDATE ulab_edu.book SET user_id = $1, title = $2, author = $3, page_count = $4, "
+            + "version = version + 1 WHERE id = $5 AND version = $6";
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveBookRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    /**
+     * Вставляет книги одним пакетом: один {@link Statement} с набором привязок на каждую книгу.
+     *
+     * @return число вставленных строк
+     */
+    public Mono<Long> insertAll(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return Mono.just(0L);
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(INSERT_SQL);
+                    for (int i = 0; i < bookDtos.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        BookDto bookDto = bookDtos.get(i);
+                        statement.bind(0, bookDto.getId())
+                                .bind(1, bookDto.getUserId())
+                                .bind(2, bookDto.getTitle())
+                                .bind(3, bookDto.getAuthor())
+                                .bind(4, bookDto.getPageCount());
+                    }
+                    return Flux.from(statement.execute()).flatMap(Result::getRowsUpdated);
+                })
+                .reduce(0L, Long::sum);
+    }
+
+    /**
+     * Все книги пользователя вместе с версиями.
+     */
+    public Flux<BookDto> findByUserId(long userId) {
+        return databaseClient.sql("SELECT id, user_id, title, author, page_count, version FROM ulab_edu.book "
+                        + "WHERE user_id = :userId ORDER BY id")
+                .bind("userId", userId)
+                .map(row -> {
+                    BookDto bookDto = new BookDto();
+                    bookDto.setId(row.get(0, Long.class));
+                    bookDto.setUserId(row.get(1, Long.class));
+                    bookDto.setTitle(row.get(2, String.class));
+                    bookDto.setAuthor(row.get(3, String.class));
+                    bookDto.setPageCount(row.get(4, Long.class));
+                    bookDto.setVersion(row.get(5, Long.class));
+                    return bookDto;
+                })
+                .all();
+    }
+
+    /**
+     * Обновляет книги одним пакетом с проверкой версий.
+     *
+     * @return ошибка {@link OptimisticLockingFailureException}, если хотя бы одну книгу изменили или удалили после чтения
+     */
+    public Mono<Void> updateAll(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return Mono.empty();
+        }
+        return databaseClient.inConnectionMany(connection -> {
+                    Statement statement = connection.createStatement(UPDATE_SQL);
+                    for (int i = 0; i < bookDtos.size(); i++) {
+                        if (i > 0) {
+                            statement.add();
+                        }
+                        BookDto bookDto = bookDtos.get(i);
+                        statement.bind(0, bookDto.getUserId())
+                                .bind(1, bookDto.getTitle())
+                                .bind(2, bookDto.getAuthor())
+                                .bind(3, bookDto.getPageCount())
+                                .bind(4, bookDto.getId())
+                                .bind(5, bookDto.getVersion());
+                    }
+                    return Flux.from(statement.execute())
+                            .concatMap(Result::getRowsUpdated);
+                })
+                .index()
+                .filter(updated -> updated.getT2() == 0)
+                .next()
+                .flatMap(conflict -> Mono.<Void>error(new OptimisticLockingFailureException(
+                        "book with id " + bookDtos.get(conflict.getT1().intValue()).getId() + " was modified concurrently")));
+    }
+
+    /**
+     * Удаляет книги по id одним запросом.
+     *
+     * @return число удалённых книг
+     */
+    public Mono<Integer> deleteByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return Mono.just(0);
+        }
+        return databaseClient.sql("DELETE FROM ulab_edu.book WHERE id = ANY(:ids)")
+                .bind("ids", ids.toArray(Long[]::new))
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * @return id удалённых книг
+     */
+    public Flux<Long> deleteByUserId(long userId) {
+        return databaseClient.sql("DELETE FROM ulab_edu.book WHERE user_id = :userId RETURNING id")
+                .bind("userId", userId)
+                .map(row -> row.get(0, Long.class))
+                .all();
+    }
+}
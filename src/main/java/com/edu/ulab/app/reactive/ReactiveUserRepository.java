@@ -0,0 +1,80 @@
+package com.edu.ulab.app.reactive;
+
+import com.edu.ulab.app.dto.UserDto;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+/**
+ * Таблица person через R2DBC.
+ */
+@Repository
+public class ReactiveUserRepository {
+    private final DatabaseClient databaseClient;
+
+    public ReactiveUserRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    public Mono<Void> insert(UserDto userDto) {
+        return databaseClient.sql("INSERT INTO ulab_edu.person (id, full_name, title, age) VALUES (:id, :fullName, :title, :age)")
+                .bind("id", userDto.getId())
+                .bind("fullName", userDto.getFullName())
+                .bind("title", userDto.getTitle())
+                .bind("age", userDto.getAge())
+                .then();
+    }
+
+    /**
+     * Текущая версия строки; пусто, если пользователя нет.
+     */
+    public Mono<Long> findVersion(long id) {
+        return databaseClient.sql("SELECT version FROM ulab_edu.person WHERE id = :id")
+                .bind("id", id)
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    /**
+     * Обновляет строку, только если её версия равна {@code userDto.version}, как и
+     * {@link com.edu.ulab.app.service.impl.UserServiceImplTemplate#updateUser}.
+     *
+     * @return число обновлённых строк, 0 если строку изменили или удалили после чтения версии
+     */
+    public Mono<Integer> update(UserDto userDto) {
+        return databaseClient.sql("UPDATE ulab_edu.person SET full_name = :fullName, title = :title, age = :age, "
+                        + "version = version + 1 WHERE id = :id AND version = :version")
+                .bind("fullName", userDto.getFullName())
+                .bind("title", userDto.getTitle())
+                .bind("age", userDto.getAge())
+                .bind("id", userDto.getId())
+                .bind("version", userDto.getVersion())
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Id книг пользователя одним запросом: пусто, если пользователя нет,
+     * один пустой {@link Optional}, если у пользователя нет книг.
+     */
+    public Flux<Optional<Long>> findUserBookIds(long userId) {
+        return databaseClient.sql("SELECT b.id FROM ulab_edu.person p LEFT JOIN ulab_edu.book b ON b.user_id = p.id "
+                        + "WHERE p.id = :userId ORDER BY b.id")
+                .bind("userId", userId)
+                .map(row -> Optional.ofNullable(row.get(0, Long.class)))
+                .all();
+    }
+
+    /**
+     * @return число удалённых строк, 0 если пользователя нет
+     */
+    public Mono<Integer> deleteById(long id) {
+        return databaseClient.sql("DELETE FROM ulab_edu.person WHERE id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -1,21 +1,52 @@
 package com.edu.ulab.app.repository;
 
+import com.edu.ulab.app.cache.SecondLevelCacheEviction;
 import com.edu.ulab.app.entity.Book;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
-import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
-import java.util.Optional;
 
 public interface BookRepository extends CrudRepository<Book, Long> {
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select b from Book b where b.id = :id")
-    Optional<Book> findByIdForUpdate(long id);
+    /**
+     * Удаляет книги пользователя одним DELETE, не загружая их в контекст.
+     *
+     * @return число удалённых книг
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from Book b where b.userId = :userId")
+    int deleteBooksByUserId(long userId);
 
-    void deleteBooksByUserId(Long userId);
+    /**
+     * Удаляет книги одним DELETE, не загружая их в контекст.
+     *
+     * @return число удалённых книг
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from Book b where b.id in :ids")
+    int deleteBooksByIds(Collection<Long> ids);
 
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHEABLE, value = "true"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.CACHE_REGION, value = SecondLevelCacheEviction.BOOK_BY_USER_REGION)
+    })
     List<Book> findBooksByUserId(Long userId);
+
+    /**
+     * Страница keyset-пагинации по всем книгам. Книги загружаются read-only и не попадают в dirty checking.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+    List<Book> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
+
+    /**
+     * Страница keyset-пагинации по книгам пользователя, идёт по индексу {@code (user_id, id)}.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+    List<Book> findByUserIdAndIdGreaterThanOrderByIdAsc(long userId, long id, Pageable pageable);
 }
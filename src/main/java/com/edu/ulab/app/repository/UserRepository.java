@@ -1,12 +1,14 @@
 package com.edu.ulab.app.repository;
 
 import com.edu.ulab.app.entity.Person;
-import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 
-import javax.persistence.LockModeType;
-import java.util.Optional;
+import javax.persistence.QueryHint;
+import java.util.List;
 
 public interface UserRepository extends CrudRepository<Person, Long> {
 
@@ -16,7 +18,25 @@ public interface UserRepository extends CrudRepository<Person, Long> {
     User has books - book - finished
      */
 
-    @Lock(LockModeType.PESSIMISTIC_WRITE)
-    @Query("select p from Person p where p.id = :id")
-    Optional<Person> findByIdForUpdate(long id);
+    /**
+     * Пустой список, если пользователя нет; {@code [null]}, если у пользователя нет книг.
+     */
+    @Query("select b.id from Person p left join Book b on b.userId = p.id where p.id = :userId order by b.id")
+    List<Long> findUserBookIds(long userId);
+
+    /**
+     * Удаляет пользователя одним DELETE без предварительного select.
+     *
+     * @return 0, если пользователя нет
+     */
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from Person p where p.id = :id")
+    int deletePersonById(long id);
+
+    /**
+     * Страница keyset-пагинации: {@code where id > :id order by id limit :pageable.size}.
+     * Пользователи загружаются read-only и не попадают в dirty checking.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+    List<Person> findByIdGreaterThanOrderByIdAsc(long id, Pageable pageable);
 }
@@ -3,11 +3,14 @@ package com.edu.ulab.app.service;
 
 import com.edu.ulab.app.dto.BookDto;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface BookService {
     BookDto createBook(BookDto bookDto);
 
+    List<BookDto> createBooks(List<BookDto> bookDtos);
+
     BookDto updateBook(BookDto bookDto);
 
     BookDto getBookById(Long id);
@@ -16,5 +19,39 @@ public interface BookService {
 
     List<Long> getBookIdByUserId(Long userId);
 
-    void deleteBookByUserId(Long userId);
+    /**
+     * Все книги пользователя вместе с версиями.
+     */
+    List<BookDto> getBooksByUserId(Long userId);
+
+    /**
+     * Обновляет книги пачкой с проверкой версий.
+     *
+     * @throws org.springframework.dao.OptimisticLockingFailureException книгу изменили или удалили после чтения
+     */
+    List<BookDto> updateBooks(List<BookDto> bookDtos);
+
+    /**
+     * Удаляет книги по id одним запросом.
+     *
+     * @return число удалённых книг
+     */
+    int deleteBooksByIds(Collection<Long> ids);
+
+    /**
+     * Не больше {@code limit} книг с id больше {@code afterId} по возрастанию id.
+     */
+    List<BookDto> getBooksAfter(long afterId, int limit);
+
+    /**
+     * Не больше {@code limit} книг пользователя с id больше {@code afterId} по возрастанию id.
+     */
+    List<BookDto> getBooksByUserAfter(long userId, long afterId, int limit);
+
+    /**
+     * Удаляет все книги пользователя одним запросом.
+     *
+     * @return число удалённых книг
+     */
+    int deleteBookByUserId(Long userId);
 }
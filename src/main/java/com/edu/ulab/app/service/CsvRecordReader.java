@@ -0,0 +1,86 @@
+package com.edu.ulab.app.service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Читает записи CSV по RFC 4180: поля в кавычках могут содержать запятые, переводы строк
+ * и удвоенные кавычки, как их пишет выгрузка {@link ExportService}.
+ */
+final class CsvRecordReader {
+    private final Reader reader;
+    private long line = 1;
+
+    CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Номер строки, с которой начинается следующая запись.
+     */
+    long line() {
+        return line;
+    }
+
+    /**
+     * @return поля записи или {@code null} в конце потока
+     * @throws CsvFormatException если кавычка не закрыта до конца потока
+     */
+    List<String> next() throws IOException {
+        int c = read();
+        if (c == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            if (quoted) {
+                if (c == -1) {
+                    throw new CsvFormatException("unterminated quoted field");
+                }
+                if (c == '"') {
+                    int next = read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        c = next;
+                        continue;
+                    }
+                } else {
+                    if (c == '\n') {
+                        line++;
+                    }
+                    field.append((char) c);
+                }
+            } else if (c == '"' && field.isEmpty()) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == -1) {
+                fields.add(field.toString());
+                if (c == '\n') {
+                    line++;
+                }
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+            c = read();
+        }
+    }
+
+    private int read() throws IOException {
+        return reader.read();
+    }
+
+    static final class CsvFormatException extends IOException {
+        CsvFormatException(String message) {
+            super(message);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.edu.ulab.app.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+
+/**
+ * Потоковая выгрузка всех пользователей и книг.
+ * <p>
+ * Строки читаются курсором на стороне сервера (fetch size внутри read-only транзакции, иначе драйвер
+ * PostgreSQL загрузит весь результат) и сразу пишутся в выходной поток, так что память не зависит
+ * от размера таблиц.
+ * <p>
+ * Читает таблицы напрямую, поэтому в профиле {@code storage} не создаётся: там данные обслуживает
+ * {@code Storage}, и выгрузка отдавала бы не то, что видят остальные эндпоинты.
+ */
+@Slf4j
+@Service
+@Profile("!storage")
+public class ExportService {
+    static final int FETCH_SIZE = 1000;
+
+    private static final String USERS_SQL = "SELECT id, full_name AS \"fullName\", title, age "
+            + "FROM ulab_edu.person ORDER BY id";
+    private static final String BOOKS_SQL = "SELECT id, user_id AS \"userId\", title, author, page_count AS \"pageCount\" "
+            + "FROM ulab_edu.book ORDER BY id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final JsonFactory jsonFactory = new JsonFactory();
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    public long exportUsers(ExportFormat format, OutputStream out) {
+        return export(USERS_SQL, format, out);
+    }
+
+    public long exportBooks(ExportFormat format, OutputStream out) {
+        return export(BOOKS_SQL, format, out);
+    }
+
+    private long export(String sql, ExportFormat format, OutputStream out) {
+        RowWriter writer = format == ExportFormat.CSV ? new CsvRowWriter(out) : new NdjsonRowWriter(jsonFactory, out);
+        Long rows = transactionTemplate.execute(status -> {
+            jdbcTemplate.query(sql, (RowCallbackHandler) writer::write);
+            return writer.finish();
+        });
+        log.info("Exported {} rows as {}", rows, format);
+        return rows == null ? 0 : rows;
+    }
+
+    private abstract static class RowWriter {
+        private String[] labels;
+        private long rows;
+
+        void write(ResultSet rs) throws SQLException {
+            try {
+                if (labels == null) {
+                    ResultSetMetaData metaData = rs.getMetaData();
+                    labels = new String[metaData.getColumnCount()];
+                    for (int i = 0; i < labels.length; i++) {
+                        labels[i] = metaData.getColumnLabel(i + 1);
+                    }
+                    writeHeader(labels);
+                }
+                writeRow(labels, rs);
+                rows++;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        long finish() {
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return rows;
+        }
+
+        abstract void writeHeader(String[] labels) throws IOException;
+
+        abstract void writeRow(String[] labels, ResultSet rs) throws IOException, SQLException;
+
+        abstract void flush() throws IOException;
+    }
+
+    private static final class NdjsonRowWriter extends RowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonRowWriter(JsonFactory jsonFactory, OutputStream out) {
+            try {
+                generator = jsonFactory.createGenerator(out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void writeHeader(String[] labels) {
+        }
+
+        @Override
+        void writeRow(String[] labels, ResultSet rs) throws IOException, SQLException {
+            generator.writeStartObject();
+            for (int i = 0; i < labels.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(labels[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Number) {
+                    generator.writeNumber(value.toString());
+                } else {
+                    generator.writeString(value.toString());
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static final class CsvRowWriter extends RowWriter {
+        private final Writer writer;
+
+        CsvRowWriter(OutputStream out) {
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        }
+
+        @Override
+        void writeHeader(String[] labels) throws IOException {
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(labels[i]);
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        void writeRow(String[] labels, ResultSet rs) throws IOException, SQLException {
+            for (int i = 0; i < labels.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                Object value = rs.getObject(i + 1);
+                if (value != null) {
+                    writeField(value.toString());
+                }
+            }
+            writer.write('\n');
+        }
+
+        @Override
+        void flush() throws IOException {
+            writer.flush();
+        }
+
+        private void writeField(String value) throws IOException {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            writer.write(value.replace("\"", "\"\""));
+            writer.write('"');
+        }
+    }
+}
@@ -0,0 +1,426 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.ImportProperties;
+import com.edu.ulab.app.exception.ImportRejectedException;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.ImportError;
+import com.edu.ulab.app.web.response.ImportReport;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Пакетная загрузка пользователей с книгами из NDJSON или CSV.
+ * <p>
+ * Загрузка идёт конвейером из двух стадий. Поток запроса читает тело, разбирает и проверяет записи
+ * и складывает их пачками в ограниченную очередь. Отдельный поток забирает пачки, выдаёт id через
+ * {@link IdAllocator} и вставляет пачку в {@code person} и {@code book} двумя {@code batchUpdate}
+ * в одной транзакции, пока поток запроса разбирает следующую. Если пачка не вставилась
+ * (например, повторяющийся {@code title}), она вставляется заново по одной записи, чтобы в отчёт
+ * попали только действительно ошибочные записи.
+ * <p>
+ * Пачки фиксируются независимо: при ошибке чтения тела уже вставленные пачки остаются в базе.
+ * <p>
+ * Пишет в базу напрямую, поэтому в профиле {@code storage} не создаётся: записи мимо {@code Storage}
+ * там не были бы видны.
+ */
+@Slf4j
+@Service
+@Profile("!storage")
+public class ImportService implements DisposableBean {
+    static final int MAX_TEXT_LENGTH = 50;
+
+    private static final String INSERT_PERSON = "INSERT INTO ulab_edu.person(id, full_name, title, age) VALUES (?,?,?,?)";
+    private static final String INSERT_BOOK = "INSERT INTO ulab_edu.book(id, user_id, title, author, page_count) VALUES (?,?,?,?,?)";
+    private static final List<ImportRecord> END = List.of();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final IdAllocator idAllocator;
+    private final ImportProperties properties;
+    private final ObjectReader requestReader = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(UserBookRequest.class);
+    private final ExecutorService writers;
+
+    public ImportService(JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager,
+                         IdAllocator idAllocator,
+                         ImportProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.idAllocator = idAllocator;
+        this.properties = properties;
+        AtomicInteger threads = new AtomicInteger();
+        // без очереди: лишняя загрузка отклоняется сразу, а не ждёт, удерживая поток запроса
+        this.writers = new ThreadPoolExecutor(0, properties.getMaxConcurrentImports(), 60, TimeUnit.SECONDS,
+                new SynchronousQueue<>(), task -> {
+            Thread thread = new Thread(task, "import-writer-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @throws ImportRejectedException уже идёт {@link ImportProperties#getMaxConcurrentImports()} загрузок
+     */
+    public ImportReport importUsers(ExportFormat format, InputStream in) {
+        Report report = new Report(properties.getMaxReportedErrors());
+        BlockingQueue<List<ImportRecord>> chunks = new ArrayBlockingQueue<>(properties.getQueueCapacity());
+        Future<?> writer;
+        try {
+            writer = writers.submit(() -> {
+                drain(chunks, report);
+                return null;
+            });
+        } catch (RejectedExecutionException e) {
+            throw new ImportRejectedException("too many concurrent imports, limit is " + properties.getMaxConcurrentImports());
+        }
+        try {
+            BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+            RecordSource source = format == ExportFormat.CSV ? csv(reader) : ndjson(reader);
+            List<ImportRecord> chunk = new ArrayList<>(properties.getChunkSize());
+            ImportRecord record;
+            while ((record = source.next(report)) != null) {
+                report.read();
+                String error = validate(record.request());
+                if (error != null) {
+                    report.failed(record.line(), error);
+                    continue;
+                }
+                chunk.add(record);
+                if (chunk.size() == properties.getChunkSize()) {
+                    handOff(chunks, chunk, writer);
+                    chunk = new ArrayList<>(properties.getChunkSize());
+                }
+            }
+            if (!chunk.isEmpty()) {
+                handOff(chunks, chunk, writer);
+            }
+            handOff(chunks, END, writer);
+            writer.get();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("import interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("import writer failed", e.getCause());
+        } finally {
+            // при ошибке чтения останавливаем запись, очередь больше никто не пополнит
+            writer.cancel(true);
+        }
+        ImportReport result = report.build();
+        log.info("Imported {} users and {} books from {} records, {} failed",
+                result.getImportedUsers(), result.getImportedBooks(), result.getRecords(), result.getFailed());
+        return result;
+    }
+
+    @Override
+    public void destroy() {
+        writers.shutdownNow();
+    }
+
+    /**
+     * Передаёт пачку записи. Пока очередь полна, чтение тела ждёт, но не дольше, чем живёт поток записи.
+     */
+    private static void handOff(BlockingQueue<List<ImportRecord>> chunks, List<ImportRecord> chunk, Future<?> writer)
+            throws InterruptedException, ExecutionException {
+        while (!chunks.offer(chunk, 100, TimeUnit.MILLISECONDS)) {
+            if (writer.isDone()) {
+                writer.get();
+                throw new IllegalStateException("import writer stopped");
+            }
+        }
+    }
+
+    private void drain(BlockingQueue<List<ImportRecord>> chunks, Report report) throws InterruptedException {
+        while (true) {
+            List<ImportRecord> chunk = chunks.take();
+            if (chunk == END) {
+                return;
+            }
+            long[] ids = idAllocator.nextIds(chunk.size() + bookCount(chunk));
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(chunk, ids, 0));
+                report.imported(chunk);
+            } catch (DataAccessException e) {
+                log.warn("Import chunk of {} records failed, retrying one by one: {}", chunk.size(), e.getMessage());
+                insertOneByOne(chunk, ids, report);
+            }
+        }
+    }
+
+    private void insertOneByOne(List<ImportRecord> chunk, long[] ids, Report report) {
+        int offset = 0;
+        for (ImportRecord record : chunk) {
+            int from = offset;
+            try {
+                transactionTemplate.executeWithoutResult(status -> insert(List.of(record), ids, from));
+                report.imported(List.of(record));
+            } catch (DataAccessException e) {
+                report.failed(record.line(), NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+            }
+            offset += 1 + record.books().size();
+        }
+    }
+
+    /**
+     * Вставляет записи, беря id из {@code ids} начиная с {@code offset}:
+     * сначала id пользователя, затем id его книг.
+     */
+    private void insert(List<ImportRecord> records, long[] ids, int offset) {
+        List<Object[]> persons = new ArrayList<>(records.size());
+        List<Object[]> books = new ArrayList<>();
+        int next = offset;
+        for (ImportRecord record : records) {
+            UserRequest user = record.request().getUserRequest();
+            long userId = ids[next++];
+            persons.add(new Object[]{userId, user.getFullName(), user.getTitle(), user.getAge()});
+            for (BookRequest book : record.books()) {
+                books.add(new Object[]{ids[next++], userId, book.getTitle(), book.getAuthor(), book.getPageCount()});
+            }
+        }
+        jdbcTemplate.batchUpdate(INSERT_PERSON, persons);
+        if (!books.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_BOOK, books);
+        }
+    }
+
+    private static int bookCount(List<ImportRecord> chunk) {
+        int count = 0;
+        for (ImportRecord record : chunk) {
+            count += record.books().size();
+        }
+        return count;
+    }
+
+    /**
+     * Те же ограничения, что у колонок таблиц, чтобы ошибочная запись не откатывала всю пачку.
+     */
+    static String validate(UserBookRequest request) {
+        // строка NDJSON "null" разбирается без ошибки в null
+        if (request == null) {
+            return "record must be a JSON object";
+        }
+        UserRequest user = request.getUserRequest();
+        if (user == null) {
+            return "userRequest is required";
+        }
+        String error = text("fullName", user.getFullName());
+        if (error == null) {
+            error = text("title", user.getTitle());
+        }
+        if (error == null && user.getAge() < 0) {
+            error = "age must not be negative";
+        }
+        List<BookRequest> books = request.getBookRequests() == null ? List.of() : request.getBookRequests();
+        for (int i = 0; error == null && i < books.size(); i++) {
+            BookRequest book = books.get(i);
+            if (book == null) {
+                continue;
+            }
+            error = text("bookRequests[" + i + "].title", book.getTitle());
+            if (error == null) {
+                error = text("bookRequests[" + i + "].author", book.getAuthor());
+            }
+            if (error == null && (book.getPageCount() < 0 || book.getPageCount() > Integer.MAX_VALUE)) {
+                error = "bookRequests[" + i + "].pageCount is out of range";
+            }
+        }
+        return error;
+    }
+
+    private static String text(String field, String value) {
+        if (value == null || value.isBlank()) {
+            return field + " is required";
+        }
+        if (value.length() > MAX_TEXT_LENGTH) {
+            return field + " is longer than " + MAX_TEXT_LENGTH + " characters";
+        }
+        return null;
+    }
+
+    /**
+     * Одна запись на строку. Строки разбираются по отдельности, поэтому ошибка в одной записи
+     * не мешает прочитать следующие.
+     */
+    private RecordSource ndjson(BufferedReader reader) {
+        long[] line = {0};
+        return report -> {
+            String text;
+            while ((text = reader.readLine()) != null) {
+                line[0]++;
+                if (text.isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRecord(line[0], requestReader.readValue(text));
+                } catch (JsonProcessingException e) {
+                    report.read();
+                    report.failed(line[0], e.getOriginalMessage());
+                }
+            }
+            return null;
+        };
+    }
+
+    /**
+     * Первая строка - заголовок. Далее в строке поля пользователя {@code fullName,title,age},
+     * за которыми идут тройки полей книг {@code title,author,pageCount}.
+     */
+    private static RecordSource csv(BufferedReader reader) throws IOException {
+        CsvRecordReader csv = new CsvRecordReader(reader);
+        csv.next();
+        return report -> {
+            while (true) {
+                long line = csv.line();
+                List<String> fields;
+                try {
+                    fields = csv.next();
+                } catch (CsvRecordReader.CsvFormatException e) {
+                    report.read();
+                    report.failed(line, e.getMessage());
+                    return null;
+                }
+                if (fields == null) {
+                    return null;
+                }
+                if (fields.size() == 1 && fields.get(0).isBlank()) {
+                    continue;
+                }
+                try {
+                    return new ImportRecord(line, csvRequest(fields));
+                } catch (IllegalArgumentException e) {
+                    report.read();
+                    report.failed(line, e.getMessage());
+                }
+            }
+        };
+    }
+
+    private static UserBookRequest csvRequest(List<String> fields) {
+        if (fields.size() < 3 || (fields.size() - 3) % 3 != 0) {
+            throw new IllegalArgumentException("expected fullName,title,age followed by title,author,pageCount per book, got "
+                    + fields.size() + " fields");
+        }
+        UserRequest user = new UserRequest();
+        user.setFullName(fields.get(0));
+        user.setTitle(fields.get(1));
+        user.setAge(number("age", fields.get(2)).intValue());
+        List<BookRequest> books = new ArrayList<>((fields.size() - 3) / 3);
+        for (int i = 3; i < fields.size(); i += 3) {
+            BookRequest book = new BookRequest();
+            book.setTitle(fields.get(i));
+            book.setAuthor(fields.get(i + 1));
+            book.setPageCount(number("pageCount", fields.get(i + 2)));
+            books.add(book);
+        }
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+
+    private static Long number(String field, String value) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    @FunctionalInterface
+    private interface RecordSource {
+        /**
+         * @return следующая разобранная запись или {@code null} в конце потока;
+         * записи, которые не удалось разобрать, сразу попадают в отчёт
+         */
+        ImportRecord next(Report report) throws IOException;
+    }
+
+    private record ImportRecord(long line, UserBookRequest request) {
+        List<BookRequest> books() {
+            return request.getBookRequests() == null
+                    ? List.of()
+                    : request.getBookRequests().stream().filter(Objects::nonNull).toList();
+        }
+    }
+
+    /**
+     * Отчёт пополняют оба потока конвейера.
+     */
+    private static final class Report {
+        private final int maxErrors;
+        private final List<ImportError> errors = new ArrayList<>();
+        private long records;
+        private long importedUsers;
+        private long importedBooks;
+        private long failed;
+
+        Report(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        synchronized void read() {
+            records++;
+        }
+
+        synchronized void imported(List<ImportRecord> chunk) {
+            importedUsers += chunk.size();
+            importedBooks += bookCount(chunk);
+        }
+
+        synchronized void failed(long line, String message) {
+            failed++;
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportError(line, message));
+            }
+        }
+
+        synchronized ImportReport build() {
+            errors.sort(Comparator.comparingLong(ImportError::getLine));
+            return ImportReport.builder()
+                    .records(records)
+                    .importedUsers(importedUsers)
+                    .importedBooks(importedBooks)
+                    .failed(failed)
+                    .errors(List.copyOf(errors))
+                    .build();
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.edu.ulab.app.service;
 import com.edu.ulab.app.dto.UserDto;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
+
 @Repository
 public interface UserService {
     UserDto createUser(UserDto userDto);
@@ -11,5 +13,20 @@ public interface UserService {
 
     UserDto getUserById(Long id);
 
+    /**
+     * Id книг пользователя, полученные одним запросом вместе с проверкой существования пользователя.
+     */
+    List<Long> getUserBookIds(Long userId);
+
+    /**
+     * Не больше {@code limit} пользователей с id больше {@code afterId} по возрастанию id.
+     */
+    List<UserDto> getUsersAfter(long afterId, int limit);
+
+    /**
+     * Удаляет пользователя одним запросом.
+     *
+     * @throws com.edu.ulab.app.exception.PersonNotFoundException если пользователя нет
+     */
     void deleteUserById(Long id);
 }
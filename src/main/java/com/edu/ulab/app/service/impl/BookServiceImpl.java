@@ -8,13 +8,23 @@ import com.edu.ulab.app.mapper.BookMapper;
 import com.edu.ulab.app.repository.BookRepository;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @Service
+@Primary
+@Profile("!storage")
 public class BookServiceImpl implements BookService {
 
     private final BookRepository bookRepository;
@@ -30,26 +40,49 @@ public class BookServiceImpl implements BookService {
     @Override
     public BookDto createBook(BookDto bookDto) {
         Book book = bookMapper.bookDtoToBook(bookDto);
-        log.info("Mapped book: {}", book);
+        log.debug("Mapped book: {}", book);
         Book savedBook = bookRepository.save(book);
-        log.info("Saved book: {}", savedBook);
+        log.debug("Saved book: {}", savedBook);
         return bookMapper.bookToBookDto(savedBook);
     }
 
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<Book> books = bookDtos.stream()
+                .map(bookMapper::bookDtoToBook)
+                .toList();
+        List<BookDto> savedBooks = new ArrayList<>(books.size());
+        bookRepository.saveAll(books).forEach(book -> savedBooks.add(bookMapper.bookToBookDto(book)));
+        log.debug("Saved {} books", savedBooks.size());
+        return savedBooks;
+    }
+
+    /**
+     * Изменения пишутся при flush одним {@code UPDATE ... WHERE id = ? AND version = ?};
+     * конфликт с параллельной транзакцией приходит как {@link ObjectOptimisticLockingFailureException}.
+     */
     @Override
     public BookDto updateBook(BookDto bookDto) {
         Book book = bookRepository.findById(bookDto.getId())
                 .orElseThrow(() -> new BookNotFoundException(("book with id " + bookDto.getId() + " not found")));
-        log.info("Get book: {}", book);
+        log.debug("Get book: {}", book);
+        if (bookDto.getVersion() != null && !bookDto.getVersion().equals(book.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+        }
+        book.setUserId(bookDto.getUserId());
+        book.setTitle(bookDto.getTitle());
+        book.setAuthor(bookDto.getAuthor());
+        book.setPageCount(bookDto.getPageCount());
         Book updateBook = bookRepository.save(book);
-        log.info("Updated user: {}", updateBook);
+        log.debug("Updated user: {}", updateBook);
         return bookMapper.bookToBookDto(updateBook);
         // реализовать недстающие методы
     }
 
+    @Transactional(readOnly = true)
     @Override
     public BookDto getBookById(Long id) {
-        log.info("Get book by id: {}", id);
+        log.debug("Get book by id: {}", id);
         // реализовать недстающие методы
         return bookRepository.findById(id)
                 .map(bookMapper::bookToBookDto)
@@ -58,24 +91,96 @@ public class BookServiceImpl implements BookService {
 
     @Override
     public void deleteBookById(Long id) {
-        log.info("Delete book by id: {}", id);
+        log.debug("Delete book by id: {}", id);
         bookRepository.deleteById(id);
         // реализовать недстающие методы
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<Long> getBookIdByUserId(Long userId) {
-        log.info("Get book by user id: {}", userId);
+        log.debug("Get book by user id: {}", userId);
         return bookRepository.findBooksByUserId(userId)
                 .stream()
                 .map(Book::getId)
                 .toList();
     }
 
+    /**
+     * {@link #updateBooks} не полагается на книги, загруженные здесь: {@link #deleteBooksByIds} перед ним
+     * очищает контекст, поэтому обновляемые книги загружаются заново одним {@code findAllById}.
+     */
     @Override
-    public void deleteBookByUserId(Long userId) {
-        log.info("Deleted books by user id: {}", userId);
-        bookRepository.deleteBooksByUserId(userId);
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return bookRepository.findBooksByUserId(userId)
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    /**
+     * Изменения пишутся при flush пачкой versioned UPDATE.
+     */
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return bookDtos;
+        }
+        Map<Long, Book> books = new HashMap<>();
+        bookRepository.findAllById(bookDtos.stream().map(BookDto::getId).toList())
+                .forEach(book -> books.put(book.getId(), book));
+        List<BookDto> updatedBooks = new ArrayList<>(bookDtos.size());
+        for (BookDto bookDto : bookDtos) {
+            Book book = books.get(bookDto.getId());
+            if (book == null) {
+                throw new BookNotFoundException("book with id " + bookDto.getId() + " not found");
+            }
+            if (bookDto.getVersion() != null && !bookDto.getVersion().equals(book.getVersion())) {
+                throw new ObjectOptimisticLockingFailureException(Book.class, book.getId());
+            }
+            book.setUserId(bookDto.getUserId());
+            book.setTitle(bookDto.getTitle());
+            book.setAuthor(bookDto.getAuthor());
+            book.setPageCount(bookDto.getPageCount());
+            updatedBooks.add(bookMapper.bookToBookDto(book));
+        }
+        log.debug("Updated {} books", updatedBooks.size());
+        return updatedBooks;
+    }
+
+    @Override
+    public int deleteBooksByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        int deleted = bookRepository.deleteBooksByIds(ids);
+        log.debug("Deleted {} books by ids: {}", deleted, ids);
+        return deleted;
+    }
+
+    @Override
+    public int deleteBookByUserId(Long userId) {
+        int deleted = bookRepository.deleteBooksByUserId(userId);
+        log.debug("Deleted {} books by user id: {}", deleted, userId);
+        return deleted;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookDto> getBooksAfter(long afterId, int limit) {
+        return bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit))
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookDto> getBooksByUserAfter(long userId, long afterId, int limit) {
+        return bookRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, afterId, PageRequest.of(0, limit))
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
     }
 
     public List<BookDto> getAll() {
@@ -84,7 +189,7 @@ public class BookServiceImpl implements BookService {
             BookDto bookDto = bookMapper.bookToBookDto(book);
             listBookDto.add(bookDto);
         });
-        log.info("Get all books: {}", listBookDto);
+        log.debug("Get all books: {} rows", listBookDto.size());
         return listBookDto;
     }
 }
@@ -0,0 +1,138 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.exception.BookNotFoundException;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+@Slf4j
+@Service
+@Primary
+@Profile("storage")
+public class BookServiceImplStorage implements BookService {
+    private final Storage storage;
+    private final BookMapper bookMapper;
+
+    public BookServiceImplStorage(Storage storage, BookMapper bookMapper) {
+        this.storage = storage;
+        this.bookMapper = bookMapper;
+    }
+
+    @Override
+    public BookDto createBook(BookDto bookDto) {
+        Book savedBook = storage.saveBook(bookMapper.bookDtoToBook(bookDto));
+        log.debug("Saved book: {}", savedBook.getId());
+        return bookMapper.bookToBookDto(savedBook);
+    }
+
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        List<Book> books = bookDtos.stream()
+                .map(bookMapper::bookDtoToBook)
+                .toList();
+        List<BookDto> savedBooks = storage.saveBooks(books)
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+        log.debug("Saved {} books", savedBooks.size());
+        return savedBooks;
+    }
+
+    @Override
+    public BookDto updateBook(BookDto bookDto) {
+        if (!storage.updateBook(bookMapper.bookDtoToBook(bookDto))) {
+            throw new BookNotFoundException("book with id " + bookDto.getId() + " not found");
+        }
+        log.debug("Update book: {}", bookDto);
+        return bookDto;
+    }
+
+    @Override
+    public BookDto getBookById(Long id) {
+        return storage.findBook(id)
+                .map(bookMapper::bookToBookDto)
+                .orElseThrow(() -> new BookNotFoundException("book with id " + id + " not found"));
+    }
+
+    @Override
+    public void deleteBookById(Long id) {
+        storage.deleteBook(id);
+        log.debug("Deleted book with id: {}", id);
+    }
+
+    @Override
+    public List<Long> getBookIdByUserId(Long userId) {
+        return Arrays.stream(storage.findBookIdsByUserId(userId))
+                .boxed()
+                .toList();
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        return storage.findBooksByUserIdAfter(userId, Long.MIN_VALUE, Integer.MAX_VALUE)
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    /**
+     * Хранилище не ведёт версий, книги обновляются по одной под блокировкой сегмента.
+     */
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        bookDtos.forEach(this::updateBook);
+        return bookDtos;
+    }
+
+    @Override
+    public int deleteBooksByIds(Collection<Long> ids) {
+        int deleted = 0;
+        for (Long id : ids) {
+            if (storage.deleteBook(id)) {
+                deleted++;
+            }
+        }
+        log.debug("Deleted {} books by ids: {}", deleted, ids);
+        return deleted;
+    }
+
+    @Override
+    public List<BookDto> getBooksAfter(long afterId, int limit) {
+        return storage.findBooksAfter(afterId, limit)
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    @Override
+    public List<BookDto> getBooksByUserAfter(long userId, long afterId, int limit) {
+        return storage.findBooksByUserIdAfter(userId, afterId, limit)
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+
+    @Override
+    public int deleteBookByUserId(Long userId) {
+        int deleted = storage.deleteBooksByUserId(userId);
+        log.debug("Deleted {} books by user id: {}", deleted, userId);
+        return deleted;
+    }
+
+    public List<BookDto> getAll() {
+        return storage.findAllBooks()
+                .stream()
+                .map(bookMapper::bookToBookDto)
+                .toList();
+    }
+}
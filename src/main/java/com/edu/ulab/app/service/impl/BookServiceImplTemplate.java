@@ -1,101 +1,188 @@
 package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.BookDto;
-import com.edu.ulab.app.entity.Book;
 import com.edu.ulab.app.exception.BookNotFoundException;
-import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.mapper.BookDtoRowMapper;
 import com.edu.ulab.app.service.BookService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.PreparedStatementCreator;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Collection;
 import java.util.List;
-import java.util.Objects;
 
 @Slf4j
 @Service
 public class BookServiceImplTemplate implements BookService {
 
     private final JdbcTemplate jdbcTemplate;
-    private final BookMapper bookMapper;
+    private final IdAllocator idAllocator;
 
 
-    public BookServiceImplTemplate(JdbcTemplate jdbcTemplate, BookMapper bookMapper) {
+    public BookServiceImplTemplate(JdbcTemplate jdbcTemplate, IdAllocator idAllocator) {
         this.jdbcTemplate = jdbcTemplate;
-
-        this.bookMapper = bookMapper;
+        this.idAllocator = idAllocator;
     }
 
     @Override
     public BookDto createBook(BookDto bookDto) {
-        final String INSERT_SQL = "INSERT INTO BOOK(TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(
-                new PreparedStatementCreator() {
-                    public PreparedStatement createPreparedStatement(Connection connection) throws SQLException {
-                        PreparedStatement ps =
-                                connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                        ps.setString(1, bookDto.getTitle());
-                        ps.setString(2, bookDto.getAuthor());
-                        ps.setLong(3, bookDto.getPageCount());
-                        ps.setLong(4, bookDto.getUserId());
-                        return ps;
-                    }
-                },
-                keyHolder);
-
-        bookDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        final String INSERT_SQL = "INSERT INTO BOOK(ID, TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?,?)";
+        bookDto.setId(idAllocator.nextId());
+        jdbcTemplate.update(INSERT_SQL, bookDto.getId(), bookDto.getTitle(), bookDto.getAuthor(),
+                bookDto.getPageCount(), bookDto.getUserId());
         return bookDto;
     }
 
+    @Override
+    public List<BookDto> createBooks(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return bookDtos;
+        }
+        final String INSERT_SQL = "INSERT INTO BOOK(ID, TITLE, AUTHOR, PAGE_COUNT, USER_ID) VALUES (?,?,?,?,?)";
+        long[] ids = idAllocator.nextIds(bookDtos.size());
+        for (int i = 0; i < bookDtos.size(); i++) {
+            bookDtos.get(i).setId(ids[i]);
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, bookDtos, bookDtos.size(), (ps, bookDto) -> {
+            ps.setLong(1, bookDto.getId());
+            ps.setString(2, bookDto.getTitle());
+            ps.setString(3, bookDto.getAuthor());
+            ps.setLong(4, bookDto.getPageCount());
+            ps.setLong(5, bookDto.getUserId());
+        });
+        log.debug("Inserted {} books", bookDtos.size());
+        return bookDtos;
+    }
+
+    /**
+     * Обновляет строку, только если её версия не изменилась с момента чтения.
+     * Без версии в {@code bookDto} берётся текущая версия строки.
+     *
+     * @throws OptimisticLockingFailureException строку изменили или удалили после чтения версии
+     */
     @Override
     public BookDto updateBook(BookDto bookDto) {
-        final String UPDATE_BOOK = "UPDATE Book SET user_id = ?, title = ?, author = ?, page_count=? WHERE id =?";
-        jdbcTemplate.update(UPDATE_BOOK, bookDto.getUserId(), bookDto.getTitle(), bookDto.getAuthor(), bookDto.getPageCount(), bookDto.getId());
-        log.info("Update book: {}", bookDto);
+        final String GET_BOOK_VERSION = "SELECT version FROM Book WHERE id = ?";
+        final String UPDATE_BOOK = "UPDATE Book SET user_id = ?, title = ?, author = ?, page_count=?, version = version + 1 WHERE id =? AND version = ?";
+        long version = bookDto.getVersion() != null
+                ? bookDto.getVersion()
+                : jdbcTemplate.queryForList(GET_BOOK_VERSION, Long.class, bookDto.getId())
+                .stream()
+                .findAny()
+                .orElseThrow(() -> new BookNotFoundException("book with id " + bookDto.getId() + " not found"));
+        if (jdbcTemplate.update(UPDATE_BOOK, bookDto.getUserId(), bookDto.getTitle(), bookDto.getAuthor(),
+                bookDto.getPageCount(), bookDto.getId(), version) == 0) {
+            throw new OptimisticLockingFailureException("book with id " + bookDto.getId() + " was modified concurrently");
+        }
+        bookDto.setVersion(version + 1);
+        log.debug("Update book: {}", bookDto);
         return bookDto;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public BookDto getBookById(Long id) {
-        final String GET_BOOK_BY_ID = "SELECT * FROM Book WHERE id=?";
-        Book book = jdbcTemplate.query(GET_BOOK_BY_ID, new BeanPropertyRowMapper<>(Book.class), id)
+        final String GET_BOOK_BY_ID = "SELECT " + BookDtoRowMapper.COLUMNS + " FROM Book WHERE id=?";
+        BookDto bookDto = jdbcTemplate.query(GET_BOOK_BY_ID, BookDtoRowMapper.INSTANCE, id)
                 .stream()
                 .findAny()
-                .orElseThrow(() -> new BookNotFoundException("user with id " + id + " not found"));
-        log.info("Get book: {}", book);
-        // реализовать недстающие методы
-        return bookMapper.bookToBookDto(book);
+                .orElseThrow(() -> new BookNotFoundException("book with id " + id + " not found"));
+        log.debug("Get book: {}", bookDto);
+        return bookDto;
     }
 
     @Override
     public void deleteBookById(Long id) {
         final String DELETE_BOOK_BY_ID = "DELETE FROM Book WHERE id=?";
-        log.info("Deleted book with id: {}", id);
+        log.debug("Deleted book with id: {}", id);
         jdbcTemplate.update(DELETE_BOOK_BY_ID, id);
         // реализовать недстающие методы
     }
 
+    @Transactional(readOnly = true)
     @Override
     public List<Long> getBookIdByUserId(Long userId) {
-        final String GET_BOOK_BY_USERID = "SELECT id, user_id, title, author, page_count FROM Book WHERE user_id =?";
-        return jdbcTemplate.query(GET_BOOK_BY_USERID, new BeanPropertyRowMapper<>(Book.class), userId)
-                .stream()
-                .map(Book::getId)
-                .toList();
+        final String GET_BOOK_IDS_BY_USERID = "SELECT id FROM Book WHERE user_id =?";
+        return jdbcTemplate.queryForList(GET_BOOK_IDS_BY_USERID, Long.class, userId);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookDto> getBooksByUserId(Long userId) {
+        final String GET_BOOKS_BY_USERID = "SELECT " + BookDtoRowMapper.COLUMNS + " FROM Book WHERE user_id = ? ORDER BY id";
+        return jdbcTemplate.query(GET_BOOKS_BY_USERID, BookDtoRowMapper.INSTANCE, userId);
+    }
+
+    /**
+     * Одна пачка условных UPDATE. Книга без версии обновляется при любой текущей версии.
+     */
+    @Override
+    public List<BookDto> updateBooks(List<BookDto> bookDtos) {
+        if (bookDtos.isEmpty()) {
+            return bookDtos;
+        }
+        final String UPDATE_BOOK = "UPDATE Book SET user_id = ?, title = ?, author = ?, page_count = ?, version = version + 1 "
+                + "WHERE id = ? AND version = COALESCE(?, version)";
+        int[][] counts = jdbcTemplate.batchUpdate(UPDATE_BOOK, bookDtos, bookDtos.size(), (ps, bookDto) -> {
+            ps.setLong(1, bookDto.getUserId());
+            ps.setString(2, bookDto.getTitle());
+            ps.setString(3, bookDto.getAuthor());
+            ps.setLong(4, bookDto.getPageCount());
+            ps.setLong(5, bookDto.getId());
+            ps.setObject(6, bookDto.getVersion(), Types.BIGINT);
+        });
+        int index = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                BookDto bookDto = bookDtos.get(index++);
+                if (count == 0) {
+                    throw new OptimisticLockingFailureException("book with id " + bookDto.getId() + " was modified concurrently");
+                }
+                if (bookDto.getVersion() != null) {
+                    bookDto.setVersion(bookDto.getVersion() + 1);
+                }
+            }
+        }
+        log.debug("Updated {} books", bookDtos.size());
+        return bookDtos;
+    }
+
+    @Override
+    public int deleteBooksByIds(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        final String DELETE_BOOKS_BY_IDS = "DELETE FROM Book WHERE id = ANY(?)";
+        int deleted = jdbcTemplate.update(DELETE_BOOKS_BY_IDS,
+                ps -> ps.setArray(1, ps.getConnection().createArrayOf("bigint", ids.toArray())));
+        log.debug("Deleted {} books by ids: {}", deleted, ids);
+        return deleted;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookDto> getBooksAfter(long afterId, int limit) {
+        final String GET_BOOKS_AFTER = "SELECT " + BookDtoRowMapper.COLUMNS + " FROM Book WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(GET_BOOKS_AFTER, BookDtoRowMapper.INSTANCE, afterId, limit);
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<BookDto> getBooksByUserAfter(long userId, long afterId, int limit) {
+        final String GET_USER_BOOKS_AFTER = "SELECT " + BookDtoRowMapper.COLUMNS
+                + " FROM Book WHERE user_id = ? AND id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(GET_USER_BOOKS_AFTER, BookDtoRowMapper.INSTANCE, userId, afterId, limit);
     }
 
     @Override
-    public void deleteBookByUserId(Long userId) {
+    public int deleteBookByUserId(Long userId) {
         final String DELETE_BOOKS_BY_USERID = "DELETE FROM Book WHERE user_id = ?";
-        jdbcTemplate.update(DELETE_BOOKS_BY_USERID, userId);
-        log.info("Delete books by user id: {}", userId);
+        int deleted = jdbcTemplate.update(DELETE_BOOKS_BY_USERID, userId);
+        log.debug("Deleted {} books by user id: {}", deleted, userId);
+        return deleted;
     }
 }
@@ -7,14 +7,22 @@ import com.edu.ulab.app.mapper.UserMapper;
 import com.edu.ulab.app.repository.UserRepository;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Objects;
 
 @Slf4j
 @Service
+@Primary
+@Profile("!storage")
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
@@ -29,47 +37,79 @@ public class UserServiceImpl implements UserService {
     @Override
     public UserDto createUser(UserDto userDto) {
         Person user = userMapper.userDtoToPerson(userDto);
-        log.info("Mapped user: {}", user);
+        log.debug("Mapped user: {}", user);
         Person savedUser = userRepository.save(user);
-        log.info("Saved user: {}", savedUser);
+        log.debug("Saved user: {}", savedUser);
         return userMapper.personToUserDto(savedUser);
     }
 
+    /**
+     * Изменения пишутся при flush одним {@code UPDATE ... WHERE id = ? AND version = ?};
+     * конфликт с параллельной транзакцией приходит как {@link ObjectOptimisticLockingFailureException}.
+     */
     @Override
     public UserDto updateUser(UserDto userDto) {
         Person person = userRepository.findById(userDto.getId())
                 .orElseThrow(() -> new PersonNotFoundException("user with id " + userDto.getId() + " not found"));
-        log.info("Get user: {}", person);
+        log.debug("Get user: {}", person);
+        if (userDto.getVersion() != null && !userDto.getVersion().equals(person.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Person.class, person.getId());
+        }
+        person.setFullName(userDto.getFullName());
+        person.setTitle(userDto.getTitle());
+        person.setAge(userDto.getAge());
         Person updateUser = userRepository.save(person);
-        log.info("Updated user: {}", updateUser);
+        log.debug("Updated user: {}", updateUser);
         return userMapper.personToUserDto(updateUser);
     }
 
+    @Transactional(readOnly = true)
     @Override
     public UserDto getUserById(Long id) {
         Person person = userRepository.findById(id)
                 .orElseThrow(() -> new PersonNotFoundException("user with id " + id + " not found"));
-        log.info("Get user: {}", person);
+        log.debug("Get user: {}", person);
         // реализовать недстающие методы
         return userMapper.personToUserDto(person);
     }
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> getUserBookIds(Long userId) {
+        List<Long> bookIds = userRepository.findUserBookIds(userId);
+        if (bookIds.isEmpty()) {
+            throw new PersonNotFoundException("user with id " + userId + " not found");
+        }
+        return bookIds.stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
     @Override
     public void deleteUserById(Long id) {
-        userRepository.deleteById(id);
-        log.info("Deleted user with id: {}", id);
-        // реализовать недстающие методы
+        if (userRepository.deletePersonById(id) == 0) {
+            throw new PersonNotFoundException("user with id " + id + " not found");
+        }
+        log.debug("Deleted user with id: {}", id);
     }
 
 
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, limit))
+                .stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
     public List<UserDto> getAll() {
         List<UserDto> listUserDto = new ArrayList<>();
         userRepository.findAll().forEach(user -> {
             UserDto userDto = userMapper.personToUserDto(user);
             listUserDto.add(userDto);
         });
-        log.info("Get all user: {}", listUserDto);
-        // реализовать недстающие методы
+        log.debug("Get all users: {} rows", listUserDto.size());
         return listUserDto;
     }
 }
@@ -0,0 +1,84 @@
+package com.edu.ulab.app.service.impl;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.storage.Storage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.List;
+
+@Slf4j
+@Service
+@Primary
+@Profile("storage")
+public class UserServiceImplStorage implements UserService {
+    private final Storage storage;
+    private final UserMapper userMapper;
+
+    public UserServiceImplStorage(Storage storage, UserMapper userMapper) {
+        this.storage = storage;
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public UserDto createUser(UserDto userDto) {
+        Person savedUser = storage.savePerson(userMapper.userDtoToPerson(userDto));
+        log.debug("Saved user: {}", savedUser.getId());
+        return userMapper.personToUserDto(savedUser);
+    }
+
+    @Override
+    public UserDto updateUser(UserDto userDto) {
+        if (!storage.updatePerson(userMapper.userDtoToPerson(userDto))) {
+            throw new PersonNotFoundException("user with id " + userDto.getId() + " not found");
+        }
+        log.debug("Success update user: {}", userDto);
+        return userDto;
+    }
+
+    @Override
+    public UserDto getUserById(Long id) {
+        return storage.findPerson(id)
+                .map(userMapper::personToUserDto)
+                .orElseThrow(() -> new PersonNotFoundException("user with id " + id + " not found"));
+    }
+
+    @Override
+    public List<Long> getUserBookIds(Long userId) {
+        long[] bookIds = storage.findPersonBookIds(userId)
+                .orElseThrow(() -> new PersonNotFoundException("user with id " + userId + " not found"));
+        return Arrays.stream(bookIds)
+                .boxed()
+                .toList();
+    }
+
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        return storage.findPersonsAfter(afterId, limit)
+                .stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+
+    @Override
+    public void deleteUserById(Long id) {
+        if (!storage.deletePerson(id)) {
+            throw new PersonNotFoundException("user with id " + id + " not found");
+        }
+        log.debug("Deleted user with id: {}", id);
+    }
+
+    public List<UserDto> getAll() {
+        return storage.findAllPersons()
+                .stream()
+                .map(userMapper::personToUserDto)
+                .toList();
+    }
+}
@@ -1,76 +1,104 @@
 package com.edu.ulab.app.service.impl;
 
 import com.edu.ulab.app.dto.UserDto;
-import com.edu.ulab.app.entity.Person;
 import com.edu.ulab.app.exception.PersonNotFoundException;
-import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.mapper.UserDtoRowMapper;
 import com.edu.ulab.app.service.UserService;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.BeanPropertyRowMapper;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.support.GeneratedKeyHolder;
-import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.sql.PreparedStatement;
+import java.util.List;
 import java.util.Objects;
 
 @Slf4j
 @Service
 public class UserServiceImplTemplate implements UserService {
     private final JdbcTemplate jdbcTemplate;
-    private final UserMapper userMapper;
+    private final IdAllocator idAllocator;
 
-    public UserServiceImplTemplate(JdbcTemplate jdbcTemplate, UserMapper userMapper) {
+    public UserServiceImplTemplate(JdbcTemplate jdbcTemplate, IdAllocator idAllocator) {
         this.jdbcTemplate = jdbcTemplate;
-        this.userMapper = userMapper;
+        this.idAllocator = idAllocator;
     }
 
     @Override
     public UserDto createUser(UserDto userDto) {
 
-        final String INSERT_SQL = "INSERT INTO PERSON(FULL_NAME, TITLE, AGE) VALUES (?,?,?)";
-        KeyHolder keyHolder = new GeneratedKeyHolder();
-        jdbcTemplate.update(
-                connection -> {
-                    PreparedStatement ps = connection.prepareStatement(INSERT_SQL, new String[]{"id"});
-                    ps.setString(1, userDto.getFullName());
-                    ps.setString(2, userDto.getTitle());
-                    ps.setLong(3, userDto.getAge());
-                    return ps;
-                }, keyHolder);
-
-        userDto.setId(Objects.requireNonNull(keyHolder.getKey()).longValue());
+        final String INSERT_SQL = "INSERT INTO PERSON(ID, FULL_NAME, TITLE, AGE) VALUES (?,?,?,?)";
+        userDto.setId(idAllocator.nextId());
+        jdbcTemplate.update(INSERT_SQL, userDto.getId(), userDto.getFullName(), userDto.getTitle(), userDto.getAge());
         return userDto;
     }
 
+    /**
+     * Обновляет строку, только если её версия не изменилась с момента чтения.
+     * Без версии в {@code userDto} берётся текущая версия строки.
+     *
+     * @throws OptimisticLockingFailureException строку изменили или удалили после чтения версии
+     */
     @Override
     public UserDto updateUser(UserDto userDto) {
-        final String UPDATE_PERSON = "UPDATE PERSON SET full_name =?, title = ?, age=? WHERE id = ?";
-        if (jdbcTemplate.update(UPDATE_PERSON, userDto.getFullName(), userDto.getTitle(), userDto.getAge(), userDto.getId()) !=0){
-            log.info("Success update user: {}", userDto);
-        } else{
-            throw new PersonNotFoundException("user with id " + userDto.getId() + " not found");
+        final String GET_PERSON_VERSION = "SELECT version FROM Person WHERE id = ?";
+        final String UPDATE_PERSON = "UPDATE PERSON SET full_name =?, title = ?, age=?, version = version + 1 WHERE id = ? AND version = ?";
+        long version = userDto.getVersion() != null
+                ? userDto.getVersion()
+                : jdbcTemplate.queryForList(GET_PERSON_VERSION, Long.class, userDto.getId())
+                .stream()
+                .findAny()
+                .orElseThrow(() -> new PersonNotFoundException("user with id " + userDto.getId() + " not found"));
+        if (jdbcTemplate.update(UPDATE_PERSON, userDto.getFullName(), userDto.getTitle(), userDto.getAge(), userDto.getId(), version) == 0) {
+            throw new OptimisticLockingFailureException("user with id " + userDto.getId() + " was modified concurrently");
         }
+        userDto.setVersion(version + 1);
+        log.debug("Success update user: {}", userDto);
         return userDto;
     }
 
+    @Transactional(readOnly = true)
     @Override
     public UserDto getUserById(Long id) {
-        final String GET_PERSON_BY_ID = "SELECT id, full_name, title, age FROM Person WHERE id=?";
-        Person person = jdbcTemplate.query(GET_PERSON_BY_ID, new BeanPropertyRowMapper<>(Person.class), id)
+        final String GET_PERSON_BY_ID = "SELECT " + UserDtoRowMapper.COLUMNS + " FROM Person WHERE id=?";
+        UserDto userDto = jdbcTemplate.query(GET_PERSON_BY_ID, UserDtoRowMapper.INSTANCE, id)
                 .stream()
                 .findAny()
                 .orElseThrow(() -> new PersonNotFoundException("user with id " + id + " not found"));
-        log.info("Get user: {}", person);
-        // реализовать недстающие методы
-        return userMapper.personToUserDto(person);
+        log.debug("Get user: {}", userDto);
+        return userDto;
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<Long> getUserBookIds(Long userId) {
+        final String GET_USER_BOOK_IDS = "SELECT b.id FROM PERSON p LEFT JOIN BOOK b ON b.user_id = p.id WHERE p.id = ? ORDER BY b.id";
+        List<Long> bookIds = jdbcTemplate.query(GET_USER_BOOK_IDS, (rs, rowNum) -> {
+            long bookId = rs.getLong(1);
+            return rs.wasNull() ? null : bookId;
+        }, userId);
+        if (bookIds.isEmpty()) {
+            throw new PersonNotFoundException("user with id " + userId + " not found");
+        }
+        return bookIds.stream()
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    @Transactional(readOnly = true)
+    @Override
+    public List<UserDto> getUsersAfter(long afterId, int limit) {
+        final String GET_PERSONS_AFTER = "SELECT " + UserDtoRowMapper.COLUMNS + " FROM Person WHERE id > ? ORDER BY id LIMIT ?";
+        return jdbcTemplate.query(GET_PERSONS_AFTER, UserDtoRowMapper.INSTANCE, afterId, limit);
     }
 
     @Override
     public void deleteUserById(Long id) {
         final String DELETE_PERSON_BY_ID = "DELETE FROM Person WHERE id=?";
-        log.info("Deleted user with id: {}", id);
-        jdbcTemplate.update(DELETE_PERSON_BY_ID, id);
+        if (jdbcTemplate.update(DELETE_PERSON_BY_ID, id) == 0) {
+            throw new PersonNotFoundException("user with id " + id + " not found");
+        }
+        log.debug("Deleted user with id: {}", id);
     }
 }
@@ -0,0 +1,120 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Компактный бинарный снимок {@link Storage}.
+ * <p>
+ * Формат: {@code MAGIC, VERSION, lastId, persons, books, crc32c}. Файл пишется во временный
+ * файл и переименовывается атомарно, поэтому на диске не бывает наполовину записанных снимков.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x554C4253;
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private SnapshotFile() {
+    }
+
+    static void write(Path path, StorageSnapshot snapshot) throws IOException {
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CheckedOutputStream checked = new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE), new CRC32C());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(snapshot.lastId());
+            out.writeInt(snapshot.persons().size());
+            for (Person person : snapshot.persons()) {
+                out.writeLong(person.getId());
+                out.writeInt(person.getAge());
+                writeString(out, person.getFullName());
+                writeString(out, person.getTitle());
+            }
+            out.writeInt(snapshot.books().size());
+            for (Book book : snapshot.books()) {
+                out.writeLong(book.getId());
+                out.writeLong(book.getUserId());
+                out.writeLong(book.getPageCount());
+                writeString(out, book.getTitle());
+                writeString(out, book.getAuthor());
+            }
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(tmp, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Загружает снимок в {@code target}.
+     *
+     * @throws IOException если файл повреждён; в этом случае {@code target} мог быть частично заполнен
+     */
+    static void read(Path path, Storage target) throws IOException {
+        StorageJournal replayer = target.replayer();
+        try (InputStream in = Files.newInputStream(path)) {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(in, BUFFER_SIZE), new CRC32C());
+            DataInputStream data = new DataInputStream(checked);
+            if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+                throw new IOException("Not a storage snapshot: " + path);
+            }
+            long lastId = data.readLong();
+            int personCount = data.readInt();
+            for (int i = 0; i < personCount; i++) {
+                Person person = new Person();
+                person.setId(data.readLong());
+                person.setAge(data.readInt());
+                person.setFullName(readString(data));
+                person.setTitle(readString(data));
+                replayer.savePerson(person);
+            }
+            int bookCount = data.readInt();
+            for (int i = 0; i < bookCount; i++) {
+                Book book = new Book();
+                book.setId(data.readLong());
+                book.setUserId(data.readLong());
+                book.setPageCount(data.readLong());
+                book.setTitle(readString(data));
+                book.setAuthor(readString(data));
+                replayer.saveBooks(List.of(book));
+            }
+            long expected = checked.getChecksum().getValue();
+            if (data.readLong() != expected) {
+                throw new IOException("Checksum mismatch in snapshot " + path);
+            }
+            target.advanceSequence(lastId);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
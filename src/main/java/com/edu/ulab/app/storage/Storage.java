@@ -1,11 +1,675 @@
 package com.edu.ulab.app.storage;
 
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Хранилище пользователей и книг в памяти процесса.
+ * <p>
+ * Ключи хранятся как примитивные {@code long}, связь пользователь - книги ведётся
+ * отдельным индексом {@code userId -> [bookId]}. Наружу отдаются копии сущностей,
+ * поэтому изменения вне хранилища не влияют на сохранённые данные.
+ * <p>
+ * Данные разбиты на сегменты по id пользователя: пользователь, его книги и индекс его книг
+ * лежат в одном сегменте под одним {@link StampedLock}, поэтому записи в разных пользователей
+ * идут параллельно, а чтение пользователя вместе с книгами видит согласованный снимок.
+ * Чтения выполняются оптимистично и берут блокировку только при конкурентной записи.
+ * Для поиска книги по id есть отдельный полосатый индекс {@code bookId -> userId}.
+ * Блокировки индекса владельцев всегда берутся после блокировок сегментов.
+ * <p>
+ * Все изменения передаются в {@link StorageJournal} под блокировкой сегмента,
+ * что позволяет восстановить хранилище после перезапуска (см. {@link StoragePersistence}).
+ */
+@Slf4j
+@Component
+@Profile("storage")
 public class Storage {
-    //todo создать хранилище в котором будут содержаться данные
-    // сделать абстракции через которые можно будет производить операции с хранилищем
-    // продумать логику поиска и сохранения
-    // продумать возможные ошибки
-    // учесть, что при сохранеии юзера или книги, должен генерироваться идентификатор
-    // продумать что у узера может быть много книг и нужно создать эту связь
-    // так же учесть, что методы хранилища принимают друго тип данных - учесть это в абстракции
+    private static final long[] NO_IDS = new long[0];
+    private static final long NO_OWNER = -1L;
+
+    private final Segment[] segments;
+    private final OwnerStripe[] owners;
+    private final int mask;
+    private final AtomicLong idSequence = new AtomicLong();
+    private volatile StorageJournal journal = StorageJournal.NONE;
+
+    public Storage() {
+        this(4 * Runtime.getRuntime().availableProcessors());
+    }
+
+    public Storage(int concurrencyLevel) {
+        int size = HashCommon.nextPowerOfTwo(Math.max(1, concurrencyLevel));
+        this.mask = size - 1;
+        this.segments = new Segment[size];
+        this.owners = new OwnerStripe[size];
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment();
+            owners[i] = new OwnerStripe();
+        }
+    }
+
+    public Person savePerson(Person person) {
+        Person stored = copy(person);
+        stored.setId(idSequence.incrementAndGet());
+        insertPerson(stored, journal);
+        log.debug("Saved person with id: {}", stored.getId());
+        return copy(stored);
+    }
+
+    public Optional<Person> findPerson(long id) {
+        Segment segment = segmentFor(id);
+        return Optional.ofNullable(segment.read(s -> s.persons.get(id))).map(Storage::copy);
+    }
+
+    /**
+     * Id книг пользователя, прочитанные в одном снимке вместе с самим пользователем.
+     *
+     * @return пустой {@link Optional}, если пользователя нет
+     */
+    public Optional<long[]> findPersonBookIds(long userId) {
+        Segment segment = segmentFor(userId);
+        return Optional.ofNullable(segment.read(s -> {
+            if (!s.persons.containsKey(userId)) {
+                return null;
+            }
+            LongArrayList bookIds = s.bookIdsByUserId.get(userId);
+            return bookIds == null ? NO_IDS : bookIds.toLongArray();
+        }));
+    }
+
+    public List<Person> findAllPersons() {
+        List<Person> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                segment.persons.values().forEach(person -> result.add(copy(person)));
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Не больше {@code limit} пользователей с id больше {@code afterId} по возрастанию id.
+     */
+    public List<Person> findPersonsAfter(long afterId, int limit) {
+        return firstAfter(segment -> segment.persons, Person::getId, Storage::copy, afterId, limit);
+    }
+
+    /**
+     * @return {@code false}, если пользователя с таким id нет
+     */
+    public boolean updatePerson(Person person) {
+        return updatePerson(copy(person), journal);
+    }
+
+    /**
+     * Удаляет пользователя вместе с его книгами, чтобы в хранилище и снимках не оставалось
+     * книг без владельца: при восстановлении такие книги не прошли бы проверку владельца.
+     *
+     * @return {@code false}, если пользователя с таким id нет
+     */
+    public boolean deletePerson(long id) {
+        return deletePerson(id, journal);
+    }
+
+    public Book saveBook(Book book) {
+        return saveBooks(List.of(book)).get(0);
+    }
+
+    /**
+     * Сохраняет книги. Книги одного пользователя становятся видимы одновременно.
+     * Если владельца хотя бы одной книги нет, не сохраняется ни одна.
+     *
+     * @throws PersonNotFoundException если владельца одной из книг нет в хранилище
+     */
+    public List<Book> saveBooks(List<Book> newBooks) {
+        List<Book> stored = new ArrayList<>(newBooks.size());
+        Map<Long, List<Book>> booksByUserId = new LinkedHashMap<>();
+        for (Book book : newBooks) {
+            Book copy = copy(book);
+            copy.setId(idSequence.incrementAndGet());
+            stored.add(copy);
+            booksByUserId.computeIfAbsent(copy.getUserId(), userId -> new ArrayList<>()).add(copy);
+        }
+        insertBooks(booksByUserId, journal);
+        log.debug("Saved {} books", stored.size());
+        return stored.stream().map(Storage::copy).toList();
+    }
+
+    public Optional<Book> findBook(long id) {
+        while (true) {
+            long userId = ownerOf(id);
+            if (userId == NO_OWNER) {
+                return Optional.empty();
+            }
+            Book book = segmentFor(userId).read(s -> s.books.get(id));
+            if (book != null) {
+                return Optional.of(copy(book));
+            }
+            if (ownerOf(id) == userId) {
+                // книгу удалили между чтениями индекса и сегмента
+                return Optional.empty();
+            }
+        }
+    }
+
+    public List<Book> findAllBooks() {
+        List<Book> result = new ArrayList<>();
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                segment.books.values().forEach(book -> result.add(copy(book)));
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Не больше {@code limit} книг с id больше {@code afterId} по возрастанию id.
+     */
+    public List<Book> findBooksAfter(long afterId, int limit) {
+        return firstAfter(segment -> segment.books, Book::getId, Storage::copy, afterId, limit);
+    }
+
+    /**
+     * Не больше {@code limit} книг пользователя с id больше {@code afterId} по возрастанию id.
+     * Книги пользователя лежат в одном сегменте, поэтому страница читается в одном снимке.
+     */
+    public List<Book> findBooksByUserIdAfter(long userId, long afterId, int limit) {
+        Segment segment = segmentFor(userId);
+        List<Book> page = segment.read(s -> {
+            LongArrayList bookIds = s.bookIdsByUserId.get(userId);
+            if (bookIds == null) {
+                return List.<Book>of();
+            }
+            long[] ids = bookIds.toLongArray();
+            Arrays.sort(ids);
+            List<Book> result = new ArrayList<>(Math.min(limit, ids.length));
+            for (int i = 0; i < ids.length && result.size() < limit; i++) {
+                if (ids[i] > afterId) {
+                    result.add(s.books.get(ids[i]));
+                }
+            }
+            return result;
+        });
+        return page.stream().map(Storage::copy).toList();
+    }
+
+    public long[] findBookIdsByUserId(long userId) {
+        return findPersonBookIds(userId).orElse(NO_IDS);
+    }
+
+    /**
+     * @return {@code false}, если книги с таким id нет
+     * @throws PersonNotFoundException если нового владельца книги нет в хранилище
+     */
+    public boolean updateBook(Book book) {
+        return updateBook(copy(book), journal);
+    }
+
+    /**
+     * @return {@code false}, если книги с таким id нет
+     */
+    public boolean deleteBook(long id) {
+        return deleteBook(id, journal);
+    }
+
+    /**
+     * @return число удалённых книг
+     */
+    public int deleteBooksByUserId(long userId) {
+        return deleteBooksByUserId(userId, journal);
+    }
+
+    /**
+     * Подключает журнал, в который будут записываться все последующие изменения.
+     */
+    void attachJournal(StorageJournal journal) {
+        this.journal = journal;
+    }
+
+    /**
+     * Журнал, применяющий записанные ранее изменения к хранилищу без повторного журналирования.
+     */
+    StorageJournal replayer() {
+        return new StorageJournal() {
+            @Override
+            public void savePerson(Person person) {
+                advanceSequence(person.getId());
+                insertPerson(copy(person), NONE);
+            }
+
+            @Override
+            public void updatePerson(Person person) {
+                Storage.this.updatePerson(copy(person), NONE);
+            }
+
+            @Override
+            public void deletePerson(long id) {
+                Storage.this.deletePerson(id, NONE);
+            }
+
+            @Override
+            public void saveBooks(List<Book> books) {
+                List<Book> copies = new ArrayList<>(books.size());
+                for (Book book : books) {
+                    advanceSequence(book.getId());
+                    copies.add(copy(book));
+                }
+                insertBooks(Map.of(copies.get(0).getUserId(), copies), NONE);
+            }
+
+            @Override
+            public void updateBook(Book book) {
+                Storage.this.updateBook(copy(book), NONE);
+            }
+
+            @Override
+            public void deleteBook(long id) {
+                Storage.this.deleteBook(id, NONE);
+            }
+
+            @Override
+            public void deleteBooksByUserId(long userId) {
+                Storage.this.deleteBooksByUserId(userId, NONE);
+            }
+        };
+    }
+
+    /**
+     * Снимает согласованный срез: на время среза блокируются все сегменты,
+     * и внутри блокировки выполняется {@code atCut}, например переключение журнала.
+     * Сохранённые сущности не изменяются на месте, поэтому в срез попадают ссылки на них.
+     */
+    StorageSnapshot snapshot(Runnable atCut) {
+        long[] stamps = new long[segments.length];
+        for (int i = 0; i < segments.length; i++) {
+            stamps[i] = segments[i].lock.readLock();
+        }
+        try {
+            atCut.run();
+            List<Person> persons = new ArrayList<>();
+            List<Book> books = new ArrayList<>();
+            for (Segment segment : segments) {
+                persons.addAll(segment.persons.values());
+                books.addAll(segment.books.values());
+            }
+            return new StorageSnapshot(persons, books, idSequence.get());
+        } finally {
+            for (int i = segments.length - 1; i >= 0; i--) {
+                segments[i].lock.unlockRead(stamps[i]);
+            }
+        }
+    }
+
+    void advanceSequence(long id) {
+        idSequence.accumulateAndGet(id, Math::max);
+    }
+
+    private void insertPerson(Person stored, StorageJournal journal) {
+        Segment segment = segmentFor(stored.getId());
+        long stamp = segment.lock.writeLock();
+        try {
+            journal.savePerson(stored);
+            segment.persons.put(stored.getId().longValue(), stored);
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean updatePerson(Person stored, StorageJournal journal) {
+        long id = stored.getId();
+        Segment segment = segmentFor(id);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (!segment.persons.containsKey(id)) {
+                return false;
+            }
+            journal.updatePerson(stored);
+            segment.persons.put(id, stored);
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    private boolean deletePerson(long id, StorageJournal journal) {
+        Segment segment = segmentFor(id);
+        long stamp = segment.lock.writeLock();
+        try {
+            if (!segment.persons.containsKey(id)) {
+                return false;
+            }
+            journal.deletePerson(id);
+            segment.persons.remove(id);
+            LongArrayList bookIds = segment.bookIdsByUserId.remove(id);
+            if (bookIds != null) {
+                for (int i = 0; i < bookIds.size(); i++) {
+                    segment.books.remove(bookIds.getLong(i));
+                    removeOwner(bookIds.getLong(i));
+                }
+            }
+            return true;
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * Сегменты всех владельцев блокируются в порядке индексов, и владельцы проверяются до первой вставки,
+     * поэтому пакет из книг разных пользователей либо сохраняется целиком, либо не сохраняется вовсе.
+     */
+    private void insertBooks(Map<Long, List<Book>> storedByUserId, StorageJournal journal) {
+        int[] indexes = storedByUserId.keySet().stream().mapToInt(this::indexOf).distinct().sorted().toArray();
+        long[] stamps = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            stamps[i] = segments[indexes[i]].lock.writeLock();
+        }
+        try {
+            for (long userId : storedByUserId.keySet()) {
+                if (!segmentFor(userId).persons.containsKey(userId)) {
+                    throw new PersonNotFoundException("user with id " + userId + " not found");
+                }
+            }
+            for (Map.Entry<Long, List<Book>> entry : storedByUserId.entrySet()) {
+                long userId = entry.getKey();
+                Segment segment = segmentFor(userId);
+                journal.saveBooks(entry.getValue());
+                for (Book book : entry.getValue()) {
+                    segment.add(book);
+                    // под блокировкой сегмента, иначе книга видна в индексе пользователя, но не находится по id
+                    setOwner(book.getId(), userId);
+                }
+            }
+        } finally {
+            for (int i = indexes.length - 1; i >= 0; i--) {
+                segments[indexes[i]].lock.unlockWrite(stamps[i]);
+            }
+        }
+    }
+
+    private boolean updateBook(Book stored, StorageJournal journal) {
+        long id = stored.getId();
+        long newUserId = stored.getUserId();
+        while (true) {
+            long oldUserId = ownerOf(id);
+            if (oldUserId == NO_OWNER) {
+                return false;
+            }
+            Segment oldSegment = segmentFor(oldUserId);
+            Segment newSegment = segmentFor(newUserId);
+            Segment first = indexOf(oldUserId) <= indexOf(newUserId) ? oldSegment : newSegment;
+            Segment second = first == oldSegment ? newSegment : oldSegment;
+            long firstStamp = first.lock.writeLock();
+            long secondStamp = second == first ? 0L : second.lock.writeLock();
+            try {
+                Book previous = oldSegment.books.get(id);
+                if (previous == null || previous.getUserId() != oldUserId) {
+                    if (ownerOf(id) == oldUserId) {
+                        return false;
+                    }
+                    // книгу перенесли конкурентно, повторяем с новым владельцем
+                    continue;
+                }
+                if (!newSegment.persons.containsKey(newUserId)) {
+                    throw new PersonNotFoundException("user with id " + newUserId + " not found");
+                }
+                journal.updateBook(stored);
+                oldSegment.remove(previous);
+                newSegment.add(stored);
+                if (oldUserId != newUserId) {
+                    setOwner(id, newUserId);
+                }
+                return true;
+            } finally {
+                if (second != first) {
+                    second.lock.unlockWrite(secondStamp);
+                }
+                first.lock.unlockWrite(firstStamp);
+            }
+        }
+    }
+
+    private boolean deleteBook(long id, StorageJournal journal) {
+        while (true) {
+            long userId = ownerOf(id);
+            if (userId == NO_OWNER) {
+                return false;
+            }
+            Segment segment = segmentFor(userId);
+            long stamp = segment.lock.writeLock();
+            try {
+                Book removed = segment.books.get(id);
+                if (removed == null || removed.getUserId() != userId) {
+                    if (ownerOf(id) == userId) {
+                        return false;
+                    }
+                    // книгу перенесли конкурентно, повторяем с новым владельцем
+                    continue;
+                }
+                journal.deleteBook(id);
+                segment.remove(removed);
+                removeOwner(id);
+                return true;
+            } finally {
+                segment.lock.unlockWrite(stamp);
+            }
+        }
+    }
+
+    private int deleteBooksByUserId(long userId, StorageJournal journal) {
+        Segment segment = segmentFor(userId);
+        LongArrayList bookIds;
+        long stamp = segment.lock.writeLock();
+        try {
+            if (!segment.bookIdsByUserId.containsKey(userId)) {
+                return 0;
+            }
+            journal.deleteBooksByUserId(userId);
+            bookIds = segment.bookIdsByUserId.remove(userId);
+            for (int i = 0; i < bookIds.size(); i++) {
+                segment.books.remove(bookIds.getLong(i));
+                removeOwner(bookIds.getLong(i));
+            }
+        } finally {
+            segment.lock.unlockWrite(stamp);
+        }
+        return bookIds.size();
+    }
+
+    /**
+     * Первые {@code limit} записей с id больше {@code afterId} по всем сегментам.
+     * Отбор идёт через ограниченную кучу, поэтому полный список в памяти не собирается и не сортируется.
+     */
+    private <T> List<T> firstAfter(Function<Segment, Long2ObjectMap<T>> table, Function<T, Long> idOf,
+                                   UnaryOperator<T> copier, long afterId, int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        Comparator<T> byId = Comparator.comparing(idOf);
+        PriorityQueue<T> top = new PriorityQueue<>(limit, byId.reversed());
+        for (Segment segment : segments) {
+            long stamp = segment.lock.readLock();
+            try {
+                for (Long2ObjectMap.Entry<T> entry : table.apply(segment).long2ObjectEntrySet()) {
+                    long id = entry.getLongKey();
+                    if (id <= afterId) {
+                        continue;
+                    }
+                    if (top.size() < limit) {
+                        top.add(entry.getValue());
+                    } else if (id < idOf.apply(top.peek())) {
+                        top.poll();
+                        top.add(entry.getValue());
+                    }
+                }
+            } finally {
+                segment.lock.unlockRead(stamp);
+            }
+        }
+        List<T> result = new ArrayList<>(top.size());
+        for (T value : top) {
+            result.add(copier.apply(value));
+        }
+        result.sort(byId);
+        return result;
+    }
+
+    private int indexOf(long key) {
+        return (int) HashCommon.mix(key) & mask;
+    }
+
+    private Segment segmentFor(long userId) {
+        return segments[indexOf(userId)];
+    }
+
+    private long ownerOf(long bookId) {
+        OwnerStripe stripe = owners[indexOf(bookId)];
+        long stamp = stripe.lock.tryOptimisticRead();
+        long owner = NO_OWNER;
+        try {
+            owner = stripe.userIdByBookId.get(bookId);
+        } catch (RuntimeException ignored) {
+            // несогласованное состояние карты при конкурентной записи, перечитаем под блокировкой
+            stamp = 0L;
+        }
+        if (stamp != 0L && stripe.lock.validate(stamp)) {
+            return owner;
+        }
+        stamp = stripe.lock.readLock();
+        try {
+            return stripe.userIdByBookId.get(bookId);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    private void setOwner(long bookId, long userId) {
+        OwnerStripe stripe = owners[indexOf(bookId)];
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.userIdByBookId.put(bookId, userId);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    private void removeOwner(long bookId) {
+        OwnerStripe stripe = owners[indexOf(bookId)];
+        long stamp = stripe.lock.writeLock();
+        try {
+            stripe.userIdByBookId.remove(bookId);
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    private static Person copy(Person person) {
+        Person copy = new Person();
+        copy.setId(person.getId());
+        copy.setFullName(person.getFullName());
+        copy.setTitle(person.getTitle());
+        copy.setAge(person.getAge());
+        return copy;
+    }
+
+    private static Book copy(Book book) {
+        Book copy = new Book();
+        copy.setId(book.getId());
+        copy.setUserId(book.getUserId());
+        copy.setTitle(book.getTitle());
+        copy.setAuthor(book.getAuthor());
+        copy.setPageCount(book.getPageCount());
+        return copy;
+    }
+
+    private static final class Segment {
+        final StampedLock lock = new StampedLock();
+        final Long2ObjectMap<Person> persons = new Long2ObjectOpenHashMap<>();
+        final Long2ObjectMap<Book> books = new Long2ObjectOpenHashMap<>();
+        final Long2ObjectMap<LongArrayList> bookIdsByUserId = new Long2ObjectOpenHashMap<>();
+
+        /**
+         * Оптимистичное чтение с переходом на блокировку чтения при конкурентной записи.
+         * Функция не должна иметь побочных эффектов: она может быть вызвана дважды.
+         */
+        <T> T read(Function<Segment, T> reader) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp != 0L) {
+                try {
+                    T result = reader.apply(this);
+                    if (lock.validate(stamp)) {
+                        return result;
+                    }
+                } catch (RuntimeException ignored) {
+                    // несогласованное состояние карт при конкурентной записи, перечитаем под блокировкой
+                }
+            }
+            stamp = lock.readLock();
+            try {
+                return reader.apply(this);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        void add(Book book) {
+            long userId = book.getUserId();
+            books.put(book.getId().longValue(), book);
+            LongArrayList bookIds = bookIdsByUserId.get(userId);
+            if (bookIds == null) {
+                bookIds = new LongArrayList();
+                bookIdsByUserId.put(userId, bookIds);
+            }
+            bookIds.add(book.getId().longValue());
+        }
+
+        void remove(Book book) {
+            long userId = book.getUserId();
+            books.remove(book.getId().longValue());
+            LongArrayList bookIds = bookIdsByUserId.get(userId);
+            if (bookIds != null) {
+                bookIds.rem(book.getId().longValue());
+                if (bookIds.isEmpty()) {
+                    bookIdsByUserId.remove(userId);
+                }
+            }
+        }
+    }
+
+    private static final class OwnerStripe {
+        final StampedLock lock = new StampedLock();
+        final Long2LongMap userIdByBookId = new Long2LongOpenHashMap();
+
+        OwnerStripe() {
+            userIdByBookId.defaultReturnValue(NO_OWNER);
+        }
+    }
 }
@@ -0,0 +1,42 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+import java.util.List;
+
+/**
+ * Журнал изменений {@link Storage}.
+ * <p>
+ * Методы вызываются под блокировкой сегмента до применения изменения, поэтому изменения
+ * одного пользователя попадают в журнал в том же порядке, в котором применяются.
+ * Ошибка журнала отменяет изменение.
+ */
+interface StorageJournal {
+    StorageJournal NONE = new StorageJournal() {
+    };
+
+    default void savePerson(Person person) {
+    }
+
+    default void updatePerson(Person person) {
+    }
+
+    default void deletePerson(long id) {
+    }
+
+    /**
+     * @param books книги одного пользователя
+     */
+    default void saveBooks(List<Book> books) {
+    }
+
+    default void updateBook(Book book) {
+    }
+
+    default void deleteBook(long id) {
+    }
+
+    default void deleteBooksByUserId(long userId) {
+    }
+}
@@ -0,0 +1,178 @@
+package com.edu.ulab.app.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Делает {@link Storage} устойчивым к перезапуску.
+ * <p>
+ * Файлы одного поколения {@code N}: {@code snapshot-N.bin} - состояние до начала {@code wal-N.log}.
+ * При старте загружается последний целый снимок и поверх него проигрываются журналы
+ * этого и следующих поколений. Снимок снимается под блокировкой всех сегментов
+ * одновременно с переключением журнала на новое поколение, после чего старые файлы удаляются.
+ */
+@Slf4j
+@Component
+@Profile("storage")
+@ConditionalOnProperty(prefix = "app.storage.persistence", name = "enabled", havingValue = "true")
+public class StoragePersistence {
+    private static final long SHUTDOWN_TIMEOUT_SECONDS = 30;
+    private static final Pattern FILE_NAME = Pattern.compile("(wal|snapshot)-(\\d+)\\.(log|bin)");
+
+    private final Storage storage;
+    private final StorageProperties.Persistence properties;
+    private final Path directory;
+
+    private ScheduledExecutorService scheduler;
+    private WriteAheadLog wal;
+    private long generation;
+
+    public StoragePersistence(Storage storage, StorageProperties storageProperties) {
+        this.storage = storage;
+        this.properties = storageProperties.getPersistence();
+        this.directory = properties.getDirectory();
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        generation = recover() + 1;
+        // запросов ещё нет, поэтому срез после восстановления согласован без переключения журнала
+        SnapshotFile.write(snapshotPath(generation), storage.snapshot(() -> {
+        }));
+        deleteGenerationsBefore(generation);
+        wal = WriteAheadLog.create(walPath(generation), (int) properties.getLogRegionSize().toBytes());
+        storage.attachJournal(wal);
+
+        scheduler = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "storage-persistence");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long fsyncMillis = properties.getFsyncInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::force, fsyncMillis, fsyncMillis, TimeUnit.MILLISECONDS);
+        long snapshotMillis = properties.getSnapshotInterval().toMillis();
+        scheduler.scheduleWithFixedDelay(this::snapshotIfChanged, snapshotMillis, snapshotMillis, TimeUnit.MILLISECONDS);
+        log.info("Storage persistence started in {}, generation {}", directory, generation);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(SHUTDOWN_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        storage.attachJournal(StorageJournal.NONE);
+        if (wal != null) {
+            wal.close();
+        }
+        log.info("Storage persistence stopped");
+    }
+
+    /**
+     * Снимает снимок и начинает новое поколение журнала.
+     */
+    public synchronized void takeSnapshot() throws IOException {
+        long next = generation + 1;
+        StorageSnapshot snapshot = storage.snapshot(() -> {
+            try {
+                wal.roll(walPath(next));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        generation = next;
+        SnapshotFile.write(snapshotPath(next), snapshot);
+        deleteGenerationsBefore(next);
+        log.info("Storage snapshot {} written: {} persons, {} books",
+                next, snapshot.persons().size(), snapshot.books().size());
+    }
+
+    /**
+     * @return последнее поколение, найденное на диске, или 0
+     */
+    private long recover() throws IOException {
+        List<Long> snapshots = generations("snapshot");
+        List<Long> logs = generations("wal");
+        long base = snapshots.isEmpty() ? 0 : snapshots.get(snapshots.size() - 1);
+        if (base > 0) {
+            SnapshotFile.read(snapshotPath(base), storage);
+        }
+        int records = 0;
+        for (long logGeneration : logs) {
+            if (logGeneration >= base) {
+                records += WriteAheadLog.replay(walPath(logGeneration), storage.replayer());
+            }
+        }
+        long last = Math.max(base, logs.isEmpty() ? 0 : logs.get(logs.size() - 1));
+        log.info("Storage recovered from snapshot {} and {} log records", base, records);
+        return last;
+    }
+
+    private void force() {
+        try {
+            wal.force();
+        } catch (RuntimeException e) {
+            log.error("Could not sync write-ahead log", e);
+        }
+    }
+
+    private void snapshotIfChanged() {
+        try {
+            if (wal.hasWrites()) {
+                takeSnapshot();
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("Could not write storage snapshot", e);
+        }
+    }
+
+    private void deleteGenerationsBefore(long keep) throws IOException {
+        for (String kind : List.of("wal", "snapshot")) {
+            for (long old : generations(kind)) {
+                if (old < keep) {
+                    Files.deleteIfExists(kind.equals("wal") ? walPath(old) : snapshotPath(old));
+                }
+            }
+        }
+    }
+
+    private List<Long> generations(String kind) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> FILE_NAME.matcher(path.getFileName().toString()))
+                    .filter(Matcher::matches)
+                    .filter(matcher -> matcher.group(1).equals(kind))
+                    .map(matcher -> Long.parseLong(matcher.group(2)))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path walPath(long generation) {
+        return directory.resolve(String.format("wal-%020d.log", generation));
+    }
+
+    private Path snapshotPath(long generation) {
+        return directory.resolve(String.format("snapshot-%020d.bin", generation));
+    }
+}
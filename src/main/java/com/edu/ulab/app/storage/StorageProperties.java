@@ -0,0 +1,45 @@
+package com.edu.ulab.app.storage;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Настройки хранилища в памяти (профиль {@code storage}).
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "app.storage")
+public class StorageProperties {
+    private final Persistence persistence = new Persistence();
+
+    @Getter
+    @Setter
+    public static class Persistence {
+        /**
+         * Сохранять изменения в журнал и снимки на локальном диске.
+         */
+        private boolean enabled;
+        /**
+         * Каталог для журнала и снимков.
+         */
+        private Path directory = Path.of("data", "storage");
+        /**
+         * Как часто сбрасывать журнал на диск. Изменения за этот интервал могут быть
+         * потеряны при сбое ОС, но не при падении процесса.
+         */
+        private Duration fsyncInterval = Duration.ofMillis(10);
+        /**
+         * Как часто снимать снимок и обрезать журнал.
+         */
+        private Duration snapshotInterval = Duration.ofMinutes(10);
+        /**
+         * Размер отображаемого в память участка файла журнала.
+         */
+        private DataSize logRegionSize = DataSize.ofMegabytes(16);
+    }
+}
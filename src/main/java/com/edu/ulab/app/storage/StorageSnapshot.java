@@ -0,0 +1,14 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+
+import java.util.List;
+
+/**
+ * Согласованный срез содержимого {@link Storage}.
+ *
+ * @param lastId наибольший выданный идентификатор на момент среза
+ */
+record StorageSnapshot(List<Person> persons, List<Book> books, long lastId) {
+}
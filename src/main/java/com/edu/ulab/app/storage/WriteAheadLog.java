@@ -0,0 +1,308 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.StorageException;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Журнал упреждающей записи для {@link Storage} поверх отображённого в память файла.
+ * <p>
+ * Запись: {@code [int длина][int crc32c][тип и поля]}. Запись попадает в страничный кэш сразу,
+ * а {@link #force()} сбрасывает накопленные записи на диск одним вызовом (group commit).
+ * Нулевая длина или неверная контрольная сумма означают конец журнала.
+ */
+@Slf4j
+final class WriteAheadLog implements StorageJournal, Closeable {
+    private static final int HEADER_SIZE = 2 * Integer.BYTES;
+
+    private static final byte SAVE_PERSON = 1;
+    private static final byte UPDATE_PERSON = 2;
+    private static final byte DELETE_PERSON = 3;
+    private static final byte SAVE_BOOKS = 4;
+    private static final byte UPDATE_BOOK = 5;
+    private static final byte DELETE_BOOK = 6;
+    private static final byte DELETE_BOOKS_BY_USER_ID = 7;
+
+    private final int regionSize;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer record = ByteBuffer.allocate(1024);
+
+    private Path path;
+    private FileChannel channel;
+    private MappedByteBuffer region;
+    private long regionStart;
+    private volatile boolean dirty;
+
+    private WriteAheadLog(Path path, int regionSize) throws IOException {
+        this.regionSize = regionSize;
+        open(path);
+    }
+
+    static WriteAheadLog create(Path path, int regionSize) throws IOException {
+        return new WriteAheadLog(path, regionSize);
+    }
+
+    Path path() {
+        return path;
+    }
+
+    synchronized boolean hasWrites() {
+        return dirty || regionStart > 0 || region.position() > 0;
+    }
+
+    @Override
+    public synchronized void savePerson(Person person) {
+        begin(SAVE_PERSON);
+        writePerson(person);
+        append();
+    }
+
+    @Override
+    public synchronized void updatePerson(Person person) {
+        begin(UPDATE_PERSON);
+        writePerson(person);
+        append();
+    }
+
+    @Override
+    public synchronized void deletePerson(long id) {
+        begin(DELETE_PERSON);
+        ensure(Long.BYTES).putLong(id);
+        append();
+    }
+
+    @Override
+    public synchronized void saveBooks(List<Book> books) {
+        begin(SAVE_BOOKS);
+        ensure(Integer.BYTES).putInt(books.size());
+        for (Book book : books) {
+            writeBook(book);
+        }
+        append();
+    }
+
+    @Override
+    public synchronized void updateBook(Book book) {
+        begin(UPDATE_BOOK);
+        writeBook(book);
+        append();
+    }
+
+    @Override
+    public synchronized void deleteBook(long id) {
+        begin(DELETE_BOOK);
+        ensure(Long.BYTES).putLong(id);
+        append();
+    }
+
+    @Override
+    public synchronized void deleteBooksByUserId(long userId) {
+        begin(DELETE_BOOKS_BY_USER_ID);
+        ensure(Long.BYTES).putLong(userId);
+        append();
+    }
+
+    /**
+     * Сбрасывает записанное на диск. Вызывается периодически, а не на каждую запись.
+     */
+    void force() {
+        MappedByteBuffer current;
+        synchronized (this) {
+            if (!dirty) {
+                return;
+            }
+            dirty = false;
+            current = region;
+        }
+        current.force();
+    }
+
+    /**
+     * Закрывает текущий файл журнала и продолжает запись в новый.
+     */
+    synchronized void roll(Path next) throws IOException {
+        closeCurrent();
+        open(next);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        closeCurrent();
+    }
+
+    /**
+     * Применяет записи журнала к {@code target}, останавливаясь на первой неполной записи.
+     *
+     * @return число применённых записей
+     */
+    static int replay(Path path, StorageJournal target) throws IOException {
+        int applied = 0;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CRC32C checksum = new CRC32C();
+            while (buffer.remaining() >= HEADER_SIZE) {
+                int length = buffer.getInt();
+                int expectedCrc = buffer.getInt();
+                if (length <= 0 || length > buffer.remaining()) {
+                    break;
+                }
+                ByteBuffer payload = buffer.slice(buffer.position(), length);
+                checksum.reset();
+                checksum.update(payload.duplicate());
+                if ((int) checksum.getValue() != expectedCrc) {
+                    log.warn("Corrupted record in {} at offset {}, ignoring the rest of the log",
+                            path, buffer.position() - HEADER_SIZE);
+                    break;
+                }
+                buffer.position(buffer.position() + length);
+                try {
+                    apply(payload, target);
+                } catch (BufferUnderflowException e) {
+                    throw new IOException("Malformed record in " + path, e);
+                }
+                applied++;
+            }
+        }
+        return applied;
+    }
+
+    private static void apply(ByteBuffer payload, StorageJournal target) throws IOException {
+        byte type = payload.get();
+        switch (type) {
+            case SAVE_PERSON -> target.savePerson(readPerson(payload));
+            case UPDATE_PERSON -> target.updatePerson(readPerson(payload));
+            case DELETE_PERSON -> target.deletePerson(payload.getLong());
+            case SAVE_BOOKS -> {
+                int count = payload.getInt();
+                List<Book> books = new ArrayList<>(count);
+                for (int i = 0; i < count; i++) {
+                    books.add(readBook(payload));
+                }
+                target.saveBooks(books);
+            }
+            case UPDATE_BOOK -> target.updateBook(readBook(payload));
+            case DELETE_BOOK -> target.deleteBook(payload.getLong());
+            case DELETE_BOOKS_BY_USER_ID -> target.deleteBooksByUserId(payload.getLong());
+            default -> throw new IOException("Unknown record type: " + type);
+        }
+    }
+
+    private void open(Path next) throws IOException {
+        path = next;
+        channel = FileChannel.open(next, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        regionStart = 0;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, regionSize);
+        dirty = false;
+    }
+
+    private void closeCurrent() throws IOException {
+        region.force();
+        dirty = false;
+        channel.force(true);
+        channel.close();
+    }
+
+    private void begin(byte type) {
+        record.clear();
+        record.put(type);
+    }
+
+    private void append() {
+        record.flip();
+        int length = record.remaining();
+        crc.reset();
+        crc.update(record.duplicate());
+        if (region.remaining() < HEADER_SIZE + length) {
+            remap(HEADER_SIZE + length);
+        }
+        region.putInt(length);
+        region.putInt((int) crc.getValue());
+        region.put(record);
+        dirty = true;
+    }
+
+    private void remap(int required) {
+        try {
+            region.force();
+            regionStart += region.position();
+            region = channel.map(FileChannel.MapMode.READ_WRITE, regionStart, Math.max(regionSize, required + HEADER_SIZE));
+        } catch (IOException e) {
+            throw new StorageException("Could not extend write-ahead log " + path, e);
+        }
+    }
+
+    private ByteBuffer ensure(int bytes) {
+        if (record.remaining() < bytes) {
+            ByteBuffer grown = ByteBuffer.allocate(Math.max(record.capacity() * 2, record.position() + bytes));
+            record.flip();
+            grown.put(record);
+            record = grown;
+        }
+        return record;
+    }
+
+    private void writePerson(Person person) {
+        ensure(Long.BYTES + Integer.BYTES).putLong(person.getId()).putInt(person.getAge());
+        writeString(person.getFullName());
+        writeString(person.getTitle());
+    }
+
+    private void writeBook(Book book) {
+        ensure(3 * Long.BYTES).putLong(book.getId()).putLong(book.getUserId()).putLong(book.getPageCount());
+        writeString(book.getTitle());
+        writeString(book.getAuthor());
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            ensure(Integer.BYTES).putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensure(Integer.BYTES + bytes.length).putInt(bytes.length).put(bytes);
+    }
+
+    private static Person readPerson(ByteBuffer payload) {
+        Person person = new Person();
+        person.setId(payload.getLong());
+        person.setAge(payload.getInt());
+        person.setFullName(readString(payload));
+        person.setTitle(readString(payload));
+        return person;
+    }
+
+    private static Book readBook(ByteBuffer payload) {
+        Book book = new Book();
+        book.setId(payload.getLong());
+        book.setUserId(payload.getLong());
+        book.setPageCount(payload.getLong());
+        book.setTitle(readString(payload));
+        book.setAuthor(readString(payload));
+        return book;
+    }
+
+    private static String readString(ByteBuffer payload) {
+        int length = payload.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        payload.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,34 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.PageResponse;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping(value = WebConstant.VERSION_URL + "/book",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+public class BookController {
+    private final UserDataFacade userDataFacade;
+
+    public BookController(UserDataFacade userDataFacade) {
+        this.userDataFacade = userDataFacade;
+    }
+
+    @GetMapping(value = "/list")
+    @Operation(summary = "Books ordered by id, one page per request. Pass nextToken of the previous page as token.")
+    public PageResponse<BookDto> getBooks(@RequestParam(required = false) String token,
+                                          @RequestParam(required = false) Integer size) {
+        PageResponse<BookDto> response = userDataFacade.getBooks(token, size);
+        log.debug("Response with {} books", response.getItems().size());
+        return response;
+    }
+}
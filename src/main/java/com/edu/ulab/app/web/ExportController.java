@@ -0,0 +1,66 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.service.ExportFormat;
+import com.edu.ulab.app.service.ExportService;
+import com.edu.ulab.app.web.constant.WebConstant;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Полная выгрузка пользователей и книг в NDJSON или CSV.
+ * <p>
+ * Пишет прямо в поток ответа на потоке запроса, без буферизации и без тайм-аута асинхронных запросов.
+ * В профиле {@code storage} недоступна, как и {@link ExportService}.
+ */
+@Slf4j
+@RestController
+@Profile("!storage")
+@RequestMapping(WebConstant.VERSION_URL + "/export")
+public class ExportController {
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/users")
+    public void exportUsers(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = prepare(format, "users", response);
+        exportService.exportUsers(exportFormat, response.getOutputStream());
+    }
+
+    @GetMapping("/books")
+    public void exportBooks(@RequestParam(defaultValue = "ndjson") String format,
+                            HttpServletResponse response) throws IOException {
+        ExportFormat exportFormat = prepare(format, "books", response);
+        exportService.exportBooks(exportFormat, response.getOutputStream());
+    }
+
+    private static ExportFormat prepare(String format, String name, HttpServletResponse response) {
+        ExportFormat exportFormat;
+        try {
+            exportFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported export format: " + format);
+        }
+        log.info("Export {} as {}", name, exportFormat);
+        response.setContentType(exportFormat.getMediaType().toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(name + "." + exportFormat.getExtension())
+                .build()
+                .toString());
+        return exportFormat;
+    }
+}
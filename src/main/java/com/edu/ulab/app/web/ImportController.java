@@ -0,0 +1,53 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.service.ExportFormat;
+import com.edu.ulab.app.service.ImportService;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.response.ImportReport;
+import io.swagger.v3.oas.annotations.Operation;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+/**
+ * Пакетная загрузка пользователей с книгами в формате выгрузки.
+ * <p>
+ * Тело читается из потока запроса по мере загрузки, без буферизации целиком.
+ * В профиле {@code storage} недоступна, как и {@link ImportService}.
+ */
+@Slf4j
+@RestController
+@Profile("!storage")
+@RequestMapping(value = WebConstant.VERSION_URL + "/import",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+public class ImportController {
+    private final ImportService importService;
+
+    public ImportController(ImportService importService) {
+        this.importService = importService;
+    }
+
+    @PostMapping("/users")
+    @Operation(summary = "Import users with books. NDJSON: one UserBookRequest per line. "
+            + "CSV: header, then fullName,title,age followed by title,author,pageCount per book.")
+    public ImportReport importUsers(@RequestParam(defaultValue = "ndjson") String format,
+                                    HttpServletRequest request) throws IOException {
+        ExportFormat importFormat;
+        try {
+            importFormat = ExportFormat.of(format);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unsupported import format: " + format);
+        }
+        log.info("Import users as {}", importFormat);
+        return importService.importUsers(importFormat, request.getInputStream());
+    }
+}
@@ -2,7 +2,10 @@ package com.edu.ulab.app.web;
 
 import com.edu.ulab.app.facade.UserDataFacade;
 import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
 import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.PageResponse;
 import com.edu.ulab.app.web.response.UserBookResponse;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.media.Content;
@@ -37,27 +40,46 @@ public class UserController {
     public UserBookResponse createUserWithBooks(@RequestBody UserBookRequest request,
                                                 @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
         UserBookResponse response = userDataFacade.createUserWithBooks(request);
-        log.info("Response with created user and his books: {}", response);
+        log.debug("Response with created user and his books: {}", response);
         return response;
     }
 
     @PutMapping(value = "/update/{id}")
     public UserBookResponse updateUserWithBooks(@RequestBody UserBookRequest request, @PathVariable Long id) {
         UserBookResponse response = userDataFacade.updateUserWithBooks(request, id);
-        log.info("Response with updated user and his books: {}", response);
+        log.debug("Response with updated user and his books: {}", response);
         return response;
     }
 
     @GetMapping(value = "/get/{userId}")
     public UserBookResponse updateUserWithBooks(@PathVariable Long userId) {
         UserBookResponse response = userDataFacade.getUserWithBooks(userId);
-        log.info("Response with user and his books: {}", response);
+        log.debug("Response with user and his books: {}", response);
+        return response;
+    }
+
+    @GetMapping(value = "/list")
+    @Operation(summary = "Users ordered by id, one page per request. Pass nextToken of the previous page as token.")
+    public PageResponse<UserDto> getUsers(@RequestParam(required = false) String token,
+                                          @RequestParam(required = false) Integer size) {
+        PageResponse<UserDto> response = userDataFacade.getUsers(token, size);
+        log.debug("Response with {} users", response.getItems().size());
+        return response;
+    }
+
+    @GetMapping(value = "/get/{userId}/books")
+    @Operation(summary = "User's books ordered by id, one page per request.")
+    public PageResponse<BookDto> getUserBooks(@PathVariable Long userId,
+                                              @RequestParam(required = false) String token,
+                                              @RequestParam(required = false) Integer size) {
+        PageResponse<BookDto> response = userDataFacade.getUserBooks(userId, token, size);
+        log.debug("Response with {} books of user {}", response.getItems().size(), userId);
         return response;
     }
 
     @DeleteMapping(value = "/delete/{userId}")
     public void deleteUserWithBooks(@PathVariable Long userId) {
-        log.info("Delete user and his books:  userId {}", userId);
+        log.debug("Delete user and his books:  userId {}", userId);
         userDataFacade.deleteUserWithBooks(userId);
     }
 }
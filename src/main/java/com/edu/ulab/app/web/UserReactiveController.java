@@ -0,0 +1,59 @@
+package com.edu.ulab.app.web;
+
+import com.edu.ulab.app.facade.ReactiveUserDataFacade;
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Pattern;
+
+import static com.edu.ulab.app.web.constant.WebConstant.REQUEST_ID_PATTERN;
+import static com.edu.ulab.app.web.constant.WebConstant.RQID;
+
+/**
+ * Неблокирующий вариант {@link UserController}: запрос освобождает поток Tomcat,
+ * пока ответ собирается на потоках драйвера R2DBC.
+ */
+@Slf4j
+@RestController
+@RequestMapping(value = WebConstant.VERSION_2_URL + "/user",
+        produces = MediaType.APPLICATION_JSON_VALUE)
+public class UserReactiveController {
+    private final ReactiveUserDataFacade userDataFacade;
+
+    public UserReactiveController(ReactiveUserDataFacade userDataFacade) {
+        this.userDataFacade = userDataFacade;
+    }
+
+    @PostMapping(value = "/create")
+    public Mono<UserBookResponse> createUserWithBooks(@RequestBody UserBookRequest request,
+                                                      @RequestHeader(RQID) @Pattern(regexp = REQUEST_ID_PATTERN) final String requestId) {
+        return userDataFacade.createUserWithBooks(request);
+    }
+
+    @PutMapping(value = "/update/{id}")
+    public Mono<UserBookResponse> updateUserWithBooks(@RequestBody UserBookRequest request, @PathVariable Long id) {
+        return userDataFacade.updateUserWithBooks(request, id);
+    }
+
+    @GetMapping(value = "/get/{userId}")
+    public Mono<UserBookResponse> getUserWithBooks(@PathVariable Long userId) {
+        return userDataFacade.getUserWithBooks(userId);
+    }
+
+    @GetMapping(value = "/get/{userId}/books", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Long> getUserBookIds(@PathVariable Long userId) {
+        return userDataFacade.getUserBookIds(userId);
+    }
+
+    @DeleteMapping(value = "/delete/{userId}")
+    public Mono<Void> deleteUserWithBooks(@PathVariable Long userId) {
+        log.debug("Delete user and his books:  userId {}", userId);
+        return userDataFacade.deleteUserWithBooks(userId);
+    }
+}
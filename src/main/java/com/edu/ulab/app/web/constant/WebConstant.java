@@ -5,6 +5,7 @@ import lombok.experimental.UtilityClass;
 @UtilityClass
 public class WebConstant {
     public static final String VERSION_URL = "/api/v1";
+    public static final String VERSION_2_URL = "/api/v2";
     public static final String RQID = "rqid";
     public static final String REQUEST_ID_PATTERN = "^[A-Za-z0-9_-]*$";
 }
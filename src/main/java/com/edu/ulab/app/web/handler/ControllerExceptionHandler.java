@@ -1,10 +1,13 @@
 package com.edu.ulab.app.web.handler;
 
+import com.edu.ulab.app.exception.ImportRejectedException;
+import com.edu.ulab.app.exception.InvalidPageTokenException;
 import com.edu.ulab.app.exception.NotFoundException;
 import com.edu.ulab.app.exception.PersonNotFoundException;
 import com.edu.ulab.app.web.response.BaseWebResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -29,6 +32,26 @@ public class ControllerExceptionHandler {
                 .body(new BaseWebResponse(createErrorMessage(exc)));
     }
 
+    @ExceptionHandler(InvalidPageTokenException.class)
+    public ResponseEntity<BaseWebResponse> handleInvalidPageTokenException(@NonNull final InvalidPageTokenException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new BaseWebResponse(exc.getMessage()));
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<BaseWebResponse> handleOptimisticLockingFailureException(@NonNull final OptimisticLockingFailureException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body(new BaseWebResponse(exc.getMessage()));
+    }
+
+    @ExceptionHandler(ImportRejectedException.class)
+    public ResponseEntity<BaseWebResponse> handleImportRejectedException(@NonNull final ImportRejectedException exc) {
+        log.warn(exc.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(new BaseWebResponse(exc.getMessage()));
+    }
 
     private String createErrorMessage(Exception exception) {
         final String message = exception.getMessage();
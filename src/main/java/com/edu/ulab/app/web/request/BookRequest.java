@@ -4,6 +4,10 @@ import lombok.Data;
 
 @Data
 public class BookRequest {
+    /**
+     * Id существующей книги пользователя при обновлении; без него книга ищется по title и author.
+     */
+    private Long id;
     private String title;
     private String author;
     private long pageCount;
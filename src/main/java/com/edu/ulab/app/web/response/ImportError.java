@@ -0,0 +1,14 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Запись, которая не была загружена. {@code line} - номер строки тела запроса, с которой запись начинается.
+ */
+@Data
+@AllArgsConstructor
+public class ImportError {
+    private long line;
+    private String message;
+}
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class ImportReport {
+    private long records;
+    private long importedUsers;
+    private long importedBooks;
+    private long failed;
+    private List<ImportError> errors;
+}
@@ -0,0 +1,16 @@
+package com.edu.ulab.app.web.response;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Страница списка. {@code nextToken} передаётся в следующий запрос, на последней странице он {@code null}.
+ */
+@Data
+@Builder
+public class PageResponse<T> {
+    private List<T> items;
+    private String nextToken;
+}
@@ -0,0 +1,3 @@
+CREATE INDEX idx_ulab_edu_book_user_id on ulab_edu.book (user_id, id);
+
+comment on index ulab_edu.idx_ulab_edu_book_user_id is 'Поиск и удаление книг пользователя';
@@ -0,0 +1,5 @@
+alter table ulab_edu.person add column version bigint not null default 0;
+alter table ulab_edu.book add column version bigint not null default 0;
+
+comment on column ulab_edu.person.version is 'Версия строки для оптимистичной блокировки';
+comment on column ulab_edu.book.version is 'Версия строки для оптимистичной блокировки';
@@ -0,0 +1,84 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.AppApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Приложение поверх PostgreSQL в Testcontainers для бенчмарков.
+ * <p>
+ * Та же версия PostgreSQL, что и в тестах репозиториев. Схема создаётся Liquibase,
+ * логирование приложения и SQL выключено, чтобы измерять доступ к данным, а не вывод в консоль.
+ */
+final class BenchmarkApplication implements AutoCloseable {
+    private static final String IMAGE_VERSION = "postgres:13-alpine";
+    private static final String JDBC_URL_FORMAT = "jdbc:postgresql://%s:%s/%s";
+
+    private final PostgreSQLContainer<?> postgres;
+    private final ConfigurableApplicationContext context;
+
+    private BenchmarkApplication(PostgreSQLContainer<?> postgres, ConfigurableApplicationContext context) {
+        this.postgres = postgres;
+        this.context = context;
+    }
+
+    static BenchmarkApplication start() {
+        return start(WebApplicationType.NONE);
+    }
+
+    /**
+     * @param properties дополнительные свойства приложения в виде {@code key=value}
+     */
+    static BenchmarkApplication start(WebApplicationType webApplicationType, String... properties) {
+        PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(
+                DockerImageName.parse(IMAGE_VERSION).asCompatibleSubstituteFor("postgres"));
+        postgres.start();
+        String url = String.format(JDBC_URL_FORMAT, postgres.getHost(),
+                postgres.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT), postgres.getDatabaseName());
+
+        List<String> args = new ArrayList<>(List.of(
+                // JdbcTemplate-сервисы обращаются к таблицам без схемы
+                "spring.datasource.url=" + url + "?currentSchema=ulab_edu,public",
+                "spring.datasource.username=" + postgres.getUsername(),
+                "spring.datasource.password=" + postgres.getPassword(),
+                "app.reactive.url=" + url.replace("jdbc:", "r2dbc:"),
+                "app.reactive.username=" + postgres.getUsername(),
+                "app.reactive.password=" + postgres.getPassword(),
+                "spring.liquibase.url=" + url,
+                "spring.liquibase.user=" + postgres.getUsername(),
+                "spring.liquibase.password=" + postgres.getPassword(),
+                "spring.jpa.hibernate.ddl-auto=none",
+                "spring.jpa.show-sql=false",
+                "spring.jpa.properties.hibernate.format_sql=false",
+                "spring.jpa.properties.hibernate.generate_statistics=false",
+                "server.port=0",
+                "logging.level.root=warn"));
+        args.addAll(List.of(properties));
+
+        // аргументы командной строки, чтобы перекрыть application.yaml
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(AppApplication.class)
+                .web(webApplicationType)
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+        return new BenchmarkApplication(postgres, context);
+    }
+
+    int port() {
+        return Integer.parseInt(context.getEnvironment().getRequiredProperty("local.server.port"));
+    }
+
+    <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    @Override
+    public void close() {
+        context.close();
+        postgres.stop();
+    }
+}
@@ -0,0 +1,110 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.service.ExportFormat;
+import com.edu.ulab.app.service.ImportService;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.ImportReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Пакетная загрузка {@link ImportService} против того же числа вызовов {@code createUserWithBooks}.
+ * Оба бенчмарка считают время на одного пользователя с книгами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportBenchmark {
+    private static final int USERS = 1_000;
+    private static final int BOOKS_PER_USER = 5;
+
+    private final AtomicLong titles = new AtomicLong();
+    private BenchmarkApplication application;
+    private UserDataFacade userDataFacade;
+    private ImportService importService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = BenchmarkApplication.start();
+        userDataFacade = application.getBean(UserDataFacade.class);
+        importService = application.getBean(ImportService.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public ImportReport importUsers() {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < USERS; i++) {
+            body.append("{\"userRequest\":{\"fullName\":\"Test Test\",\"title\":\"import ")
+                    .append(titles.incrementAndGet())
+                    .append("\",\"age\":30},\"bookRequests\":[");
+            for (int j = 0; j < BOOKS_PER_USER; j++) {
+                body.append(j == 0 ? "" : ",")
+                        .append("{\"title\":\"title ").append(j).append("\",\"author\":\"author\",\"pageCount\":100}");
+            }
+            body.append("]}\n");
+        }
+        return importService.importUsers(ExportFormat.NDJSON,
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(USERS)
+    public long createUserWithBooks() {
+        long last = 0;
+        for (int i = 0; i < USERS; i++) {
+            last = userDataFacade.createUserWithBooks(request()).getUserId();
+        }
+        return last;
+    }
+
+    private UserBookRequest request() {
+        UserRequest user = new UserRequest();
+        user.setFullName("Test Test");
+        user.setTitle("create " + titles.incrementAndGet());
+        user.setAge(30);
+
+        List<BookRequest> books = new ArrayList<>(BOOKS_PER_USER);
+        for (int i = 0; i < BOOKS_PER_USER; i++) {
+            BookRequest book = new BookRequest();
+            book.setTitle("title " + i);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            books.add(book);
+        }
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+}
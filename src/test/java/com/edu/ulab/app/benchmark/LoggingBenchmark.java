@@ -0,0 +1,135 @@
+package com.edu.ulab.app.benchmark;
+
+import ch.qos.logback.classic.AsyncAppender;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.classic.encoder.PatternLayoutEncoder;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.Appender;
+import ch.qos.logback.core.FileAppender;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Стоимость логирования одного запроса {@code createUserWithBooks} для потока запроса.
+ * <p>
+ * Повторяет вызовы логгера фасада и сервисов: DTO на DEBUG и одна строка сводки на INFO. Сравнивается прежний
+ * режим (всё на INFO, синхронная запись в файл) с боевым профилем (DEBUG выключен, асинхронный appender).
+ * Несколько потоков запросов, чтобы была видна конкуренция за синхронный appender.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class LoggingBenchmark {
+    private static final int BOOKS_PER_USER = 5;
+
+    /**
+     * sync - синхронный файл, async - AsyncAppender поверх того же файла.
+     */
+    @Param({"sync", "async"})
+    public String appender;
+
+    /**
+     * INFO - боевой уровень, DEBUG - как было, когда DTO логировались на INFO.
+     */
+    @Param({"INFO", "DEBUG"})
+    public String level;
+
+    private LoggerContext context;
+    private Logger log;
+    private Path file;
+    private UserDto user;
+    private List<BookDto> books;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("logging-benchmark", ".log");
+        context = new LoggerContext();
+
+        PatternLayoutEncoder encoder = new PatternLayoutEncoder();
+        encoder.setContext(context);
+        encoder.setPattern("%d{yyyy-MM-dd'T'HH:mm:ss.SSSXXX} %5p [%t] [%X{requestId}] %logger{36} - %m%n");
+        encoder.start();
+
+        FileAppender<ILoggingEvent> fileAppender = new FileAppender<>();
+        fileAppender.setContext(context);
+        fileAppender.setFile(file.toString());
+        fileAppender.setEncoder(encoder);
+        fileAppender.start();
+
+        Appender<ILoggingEvent> root = fileAppender;
+        if ("async".equals(appender)) {
+            AsyncAppender async = new AsyncAppender();
+            async.setContext(context);
+            async.setQueueSize(8192);
+            async.setNeverBlock(true);
+            async.setIncludeCallerData(false);
+            async.addAppender(fileAppender);
+            async.start();
+            root = async;
+        }
+
+        Logger rootLogger = context.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME);
+        rootLogger.detachAndStopAllAppenders();
+        rootLogger.addAppender(root);
+        rootLogger.setLevel(ch.qos.logback.classic.Level.toLevel(level));
+        log = context.getLogger("com.edu.ulab.app.facade.UserDataFacade");
+
+        user = new UserDto();
+        user.setId(1L);
+        user.setFullName("Test Test");
+        user.setTitle("reader");
+        user.setAge(30);
+        books = new ArrayList<>(BOOKS_PER_USER);
+        for (int i = 0; i < BOOKS_PER_USER; i++) {
+            BookDto book = new BookDto();
+            book.setId(100L + i);
+            book.setUserId(1L);
+            book.setTitle("title " + i);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            books.add(book);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        context.stop();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public void createUserWithBooksRequest() {
+        log.debug("Got user book create request: {}", user);
+        log.debug("Mapped user request: {}", user);
+        log.debug("Created user: {}", user);
+        log.debug("Mapped books: {}", books);
+        log.debug("Collected book ids: {}", books);
+        log.info("Created user {} with {} books", user.getId(), books.size());
+    }
+}
@@ -0,0 +1,122 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Сравнение JPA ({@link UserServiceImpl}, {@link BookServiceImpl}) и JdbcTemplate
+ * ({@link UserServiceImplTemplate}, {@link BookServiceImplTemplate}) реализаций на одной базе.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ServiceBenchmark {
+    private static final int USERS = 1_000;
+    private static final int BOOKS_PER_USER = 5;
+
+    @Param({"jpa", "template"})
+    public String implementation;
+
+    private final AtomicLong titles = new AtomicLong();
+    private BenchmarkApplication application;
+    private UserService userService;
+    private BookService bookService;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = BenchmarkApplication.start();
+        boolean jpa = "jpa".equals(implementation);
+        userService = jpa ? application.getBean(UserServiceImpl.class) : application.getBean(UserServiceImplTemplate.class);
+        bookService = jpa ? application.getBean(BookServiceImpl.class) : application.getBean(BookServiceImplTemplate.class);
+        userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = userService.createUser(user()).getId();
+            bookService.createBooks(books(userIds[i]));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public UserDto createUser() {
+        return userService.createUser(user());
+    }
+
+    @Benchmark
+    public UserDto getUserById() {
+        return userService.getUserById(randomUserId());
+    }
+
+    @Benchmark
+    public List<Long> getUserBookIds() {
+        return userService.getUserBookIds(randomUserId());
+    }
+
+    @Benchmark
+    public List<BookDto> createBooks() {
+        return bookService.createBooks(books(randomUserId()));
+    }
+
+    @Benchmark
+    public List<Long> getBookIdByUserId() {
+        return bookService.getBookIdByUserId(randomUserId());
+    }
+
+    private long randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(USERS)];
+    }
+
+    private UserDto user() {
+        UserDto user = new UserDto();
+        user.setFullName("Test Test");
+        // title уникален в таблице person
+        user.setTitle("reader " + titles.incrementAndGet());
+        user.setAge(30);
+        return user;
+    }
+
+    private static List<BookDto> books(long userId) {
+        List<BookDto> books = new ArrayList<>(BOOKS_PER_USER);
+        for (int i = 0; i < BOOKS_PER_USER; i++) {
+            BookDto book = new BookDto();
+            book.setUserId(userId);
+            book.setTitle("title " + i);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            books.add(book);
+        }
+        return books;
+    }
+}
@@ -0,0 +1,124 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.storage.Storage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Масштабирование {@link Storage} по числу потоков.
+ * <p>
+ * {@link #main} прогоняет бенчмарки на 1, 2, 4 ... N потоках, где N - число ядер.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StorageBenchmark {
+    private static final int USERS = 10_000;
+    private static final int BOOKS_PER_USER = 5;
+
+    private Storage storage;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        storage = new Storage();
+        userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            long userId = storage.savePerson(person()).getId();
+            userIds[i] = userId;
+            storage.saveBooks(books(userId));
+        }
+    }
+
+    @Benchmark
+    public Optional<long[]> getUserWithBooks() {
+        return storage.findPersonBookIds(randomUserId());
+    }
+
+    @Benchmark
+    public List<Book> createBooks() {
+        return storage.saveBooks(books(randomUserId()));
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(9)
+    public Optional<long[]> readMostlyRead() {
+        return storage.findPersonBookIds(randomUserId());
+    }
+
+    @Benchmark
+    @Group("readMostly")
+    @GroupThreads(1)
+    public Person readMostlyWrite() {
+        Person person = storage.findPerson(randomUserId()).orElseThrow();
+        person.setAge(person.getAge() + 1);
+        storage.updatePerson(person);
+        return person;
+    }
+
+    private long randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(USERS)];
+    }
+
+    private static Person person() {
+        Person person = new Person();
+        person.setFullName("Test Test");
+        person.setTitle("reader");
+        person.setAge(30);
+        return person;
+    }
+
+    private static List<Book> books(long userId) {
+        List<Book> books = new ArrayList<>(BOOKS_PER_USER);
+        for (int i = 0; i < BOOKS_PER_USER; i++) {
+            Book book = new Book();
+            book.setUserId(userId);
+            book.setTitle("title " + i);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            books.add(book);
+        }
+        return books;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; threads <= cores; threads *= 2) {
+            Options options = new OptionsBuilder()
+                    .include(StorageBenchmark.class.getSimpleName() + ".(getUserWithBooks|createBooks)")
+                    .threads(threads)
+                    .build();
+            new Runner(options).run();
+        }
+        new Runner(new OptionsBuilder()
+                .include(StorageBenchmark.class.getSimpleName() + ".readMostly")
+                .build()).run();
+    }
+}
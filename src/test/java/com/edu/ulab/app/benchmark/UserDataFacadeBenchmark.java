@@ -0,0 +1,108 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.facade.UserDataFacade;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Горячие пути {@link UserDataFacade} с активными по умолчанию (JPA) сервисами.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserDataFacadeBenchmark {
+    private static final int USERS = 1_000;
+    private static final int BOOKS_PER_USER = 5;
+
+    private final AtomicLong titles = new AtomicLong();
+    private BenchmarkApplication application;
+    private UserDataFacade userDataFacade;
+    private UserBookResponseCache userBookResponseCache;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        application = BenchmarkApplication.start();
+        userDataFacade = application.getBean(UserDataFacade.class);
+        userBookResponseCache = application.getBean(UserBookResponseCache.class);
+        userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = userDataFacade.createUserWithBooks(request()).getUserId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public UserBookResponse createUserWithBooks() {
+        return userDataFacade.createUserWithBooks(request());
+    }
+
+    @Benchmark
+    public UserBookResponse getUserWithBooks() {
+        return userDataFacade.getUserWithBooks(randomUserId());
+    }
+
+    /**
+     * Чтение мимо кэша ответов: оба запроса к базе на каждый вызов.
+     */
+    @Benchmark
+    public UserBookResponse getUserWithBooksUncached() {
+        long userId = randomUserId();
+        userBookResponseCache.invalidateUser(userId);
+        return userDataFacade.getUserWithBooks(userId);
+    }
+
+    private long randomUserId() {
+        return userIds[ThreadLocalRandom.current().nextInt(USERS)];
+    }
+
+    private UserBookRequest request() {
+        UserRequest user = new UserRequest();
+        user.setFullName("Test Test");
+        // title уникален в таблице person
+        user.setTitle("reader " + titles.incrementAndGet());
+        user.setAge(30);
+
+        List<BookRequest> books = new ArrayList<>(BOOKS_PER_USER);
+        for (int i = 0; i < BOOKS_PER_USER; i++) {
+            BookRequest book = new BookRequest();
+            book.setTitle("title " + i);
+            book.setAuthor("author");
+            book.setPageCount(100);
+            books.add(book);
+        }
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(books);
+        return request;
+    }
+}
@@ -0,0 +1,90 @@
+package com.edu.ulab.app.benchmark;
+
+import com.edu.ulab.app.web.constant.WebConstant;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пропускная способность и задержки (p99 в режиме SampleTime) {@code GET /user/get/{userId}}
+ * на платформенных и виртуальных потоках Tomcat при числе клиентов больше {@code server.tomcat.threads.max}.
+ * <p>
+ * Кэш ответов выключен, чтобы каждый запрос ждал базу. Режим {@code virtual} требует Java 21.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(256)
+@Fork(1)
+public class WebThreadsBenchmark {
+    private static final int USERS = 1_000;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    private BenchmarkApplication application;
+    private HttpClient client;
+    private String baseUrl;
+    private long[] userIds;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, InterruptedException {
+        application = BenchmarkApplication.start(WebApplicationType.SERVLET,
+                "app.web.virtual-threads.enabled=" + "virtual".equals(threads),
+                "app.cache.user-book-response.maximum-size=0",
+                "server.tomcat.threads.max=64",
+                "spring.datasource.hikari.maximum-pool-size=10");
+        client = HttpClient.newHttpClient();
+        baseUrl = "http://localhost:" + application.port() + "/app" + WebConstant.VERSION_URL + "/user";
+        ObjectMapper objectMapper = new ObjectMapper();
+        userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            String body = """
+                    {"userRequest": {"fullName": "Test Test", "title": "reader %d", "age": 30},
+                     "bookRequests": [{"title": "title", "author": "author", "pageCount": 100}]}
+                    """.formatted(i);
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/create"))
+                            .header("Content-Type", "application/json")
+                            .header(WebConstant.RQID, "benchmark")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build(),
+                    HttpResponse.BodyHandlers.ofString());
+            userIds[i] = objectMapper.readTree(response.body()).get("userId").asLong();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        application.close();
+    }
+
+    @Benchmark
+    public int getUserWithBooks() throws IOException, InterruptedException {
+        long userId = userIds[ThreadLocalRandom.current().nextInt(USERS)];
+        return client.send(HttpRequest.newBuilder(URI.create(baseUrl + "/get/" + userId)).GET().build(),
+                HttpResponse.BodyHandlers.discarding()).statusCode();
+    }
+}
@@ -0,0 +1,166 @@
+package com.edu.ulab.app.cache;
+
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Тестирование функционала {@link UserBookResponseCache}.
+ */
+@DisplayName("Testing user book response cache.")
+public class UserBookResponseCacheTest {
+    private final UserBookResponseCache cache = new UserBookResponseCache(100, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Повторное чтение берётся из кэша.")
+    void get_Test() {
+        //when
+        UserBookResponse first = cache.get(1L, () -> load(1L, 10L));
+        UserBookResponse second = cache.get(1L, () -> load(1L, 10L));
+
+        //then
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    @DisplayName("После изменения пользователя ответ собирается заново.")
+    void invalidateUser_Test() {
+        //given
+        cache.get(1L, () -> load(1L, 10L));
+
+        //when
+        cache.invalidateUser(1L);
+        cache.get(1L, () -> load(1L, 10L));
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Удаление книги сбрасывает ответ её владельца, не трогая остальных.")
+    void invalidateBook_Test() {
+        //given
+        cache.get(1L, () -> load(1L, 10L));
+        cache.get(2L, () -> load(2L, 20L));
+
+        //when
+        cache.invalidateBook(10L);
+        cache.get(1L, () -> load(1L));
+        cache.get(2L, () -> load(2L, 20L));
+
+        //then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Откаченная транзакция не заполняет и не сбрасывает кэш.")
+    void rollback_Test() {
+        //given
+        cache.get(1L, () -> load(1L, 10L));
+        TransactionSynchronizationManager.initSynchronization();
+
+        //when
+        cache.invalidateUser(1L);
+        cache.get(2L, () -> load(2L, 20L));
+        complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+        cache.get(1L, () -> load(1L, 10L));
+        cache.get(2L, () -> load(2L, 20L));
+
+        //then
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    @DisplayName("Чтение, пересёкшееся с коммитом изменения, не кладёт устаревший ответ.")
+    void concurrentInvalidation_Test() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(1L, () -> load(1L, 10L));
+        List<TransactionSynchronization> reader = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        //when
+        // изменение закоммитилось раньше, чем транзакция читателя
+        cache.invalidateUser(1L);
+        reader.forEach(TransactionSynchronization::afterCommit);
+        cache.get(1L, () -> load(1L));
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Чтение прежнего владельца, пересёкшееся со сбросом книги, не кладёт устаревший ответ.")
+    void concurrentBookInvalidation_Test() {
+        //given
+        TransactionSynchronizationManager.initSynchronization();
+        cache.get(1L, () -> load(1L, 10L));
+        List<TransactionSynchronization> reader = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+
+        //when
+        // книгу удалили, пока ответ читателя ещё не попал в кэш и индекс
+        cache.invalidateBook(10L);
+        reader.forEach(TransactionSynchronization::afterCommit);
+        cache.get(1L, () -> load(1L));
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Книга, перешедшая к другому пользователю, сбрасывает ответ прежнего владельца по индексу.")
+    void invalidateMovedBook_Test() {
+        //given
+        cache.get(1L, () -> load(1L, 10L, 11L));
+        cache.get(1L, () -> load(1L, 10L, 11L));
+
+        //when
+        cache.invalidateUser(2L);
+        cache.invalidateBook(11L);
+        cache.get(1L, () -> load(1L, 10L));
+        cache.invalidateBook(11L);
+        cache.get(1L, () -> load(1L, 10L));
+
+        //then
+        assertEquals(2, loads.get());
+    }
+
+    private UserBookResponse load(Long userId, Long... bookIds) {
+        loads.incrementAndGet();
+        return UserBookResponse.builder()
+                .userId(userId)
+                .booksIdList(List.of(bookIds))
+                .build();
+    }
+
+    private static void complete(int status) {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        for (TransactionSynchronization synchronization : synchronizations) {
+            if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                synchronization.afterCommit();
+            }
+            synchronization.afterCompletion(status);
+        }
+    }
+}
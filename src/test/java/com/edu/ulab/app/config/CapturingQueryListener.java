@@ -0,0 +1,38 @@
+package com.edu.ulab.app.config;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Запоминает запросы, выполненные через тестовый источник данных между {@link #start()} и {@link #stop()},
+ * вместе с привязанными параметрами.
+ */
+public class CapturingQueryListener implements QueryExecutionListener {
+    private final List<QueryInfo> queries = new CopyOnWriteArrayList<>();
+    private volatile boolean capturing;
+
+    public void start() {
+        queries.clear();
+        capturing = true;
+    }
+
+    public List<QueryInfo> stop() {
+        capturing = false;
+        return List.copyOf(queries);
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        if (capturing && execInfo.isSuccess()) {
+            queries.addAll(queryInfoList);
+        }
+    }
+}
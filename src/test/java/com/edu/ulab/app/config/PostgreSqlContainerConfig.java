@@ -34,6 +34,13 @@ public class PostgreSqlContainerConfig {
         POSTGRES.start();
     }
 
+    /**
+     * Общий контейнер для конфигураций, которым нужен не JDBC-доступ к той же базе.
+     */
+    static PostgreSQLContainer<?> container() {
+        return POSTGRES;
+    }
+
     @Bean
     public DataSource dataSource() {
         String connectionUrl = String.format(JDBC_URL_FORMAT,
@@ -50,11 +57,17 @@ public class PostgreSqlContainerConfig {
         return proxyListenerDataSource(dataSource);
     }
 
+    @Bean
+    public CapturingQueryListener capturingQueryListener() {
+        return new CapturingQueryListener();
+    }
+
     private DataSource proxyListenerDataSource(final DataSource dataSource) {
         ChainListener listener = new ChainListener();
         SLF4JQueryLoggingListener loggingListener = new SLF4JQueryLoggingListener();
         listener.addListener(loggingListener);
         listener.addListener(new DataSourceQueryCountListener());
+        listener.addListener(capturingQueryListener());
 
         return ProxyDataSourceBuilder
                 .create(dataSource)
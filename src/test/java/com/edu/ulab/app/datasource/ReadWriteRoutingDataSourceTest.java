@@ -0,0 +1,246 @@
+package com.edu.ulab.app.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+import org.springframework.transaction.annotation.EnableTransactionManagement;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.utility.DockerImageName;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тестирование маршрутизации на двух экземплярах PostgreSQL.
+ * Экземпляры различаются именем базы, которое возвращает {@code current_database()}.
+ * Маршрутизация проверяется и через {@link DataSourceTransactionManager}, и через {@link JpaTransactionManager}
+ * с {@code @Transactional}-сервисом: в JPA соединение готовится в {@code HibernateJpaDialect} до того,
+ * как выставлен признак read-only.
+ */
+@DisplayName("Testing read/write routing between primary and replica.")
+public class ReadWriteRoutingDataSourceTest {
+    private static final String IMAGE_VERSION = "postgres:13-alpine";
+    private static final String CURRENT_DATABASE = "SELECT current_database()";
+
+    private static final PostgreSQLContainer<?> PRIMARY = container("primary_db");
+    private static final PostgreSQLContainer<?> REPLICA = container("replica_db");
+
+    static {
+        PRIMARY.start();
+        REPLICA.start();
+    }
+
+    private ReadWritePools pools;
+    private HikariDataSource primaryPool;
+    private HikariDataSource replicaPool;
+    private DataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readWrite;
+    private TransactionTemplate readOnly;
+    private ConfigurableApplicationContext jpaContext;
+
+    @BeforeEach
+    void setUp() {
+        primaryPool = pool(PRIMARY, "primary");
+        replicaPool = pool(REPLICA, "replica-0");
+        pools = new ReadWritePools(primaryPool, List.of(replicaPool),
+                Duration.ofSeconds(5), Duration.ofHours(1));
+        dataSource = new LazyConnectionDataSourceProxy(new ReadWriteRoutingDataSource(pools));
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        readWrite = new TransactionTemplate(transactionManager);
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (jpaContext != null) {
+            jpaContext.close();
+            jpaContext = null;
+        }
+        pools.close();
+    }
+
+    @Test
+    @DisplayName("Read-only транзакция идёт на реплику, остальные запросы на основной сервер.")
+    void routeByTransactionReadOnly_Test() {
+        //given
+
+        //when
+        String inReadOnly = readOnly.execute(status -> currentDatabase());
+        String inReadWrite = readWrite.execute(status -> currentDatabase());
+        String withoutTransaction = currentDatabase();
+
+        //then
+        assertEquals("replica_db", inReadOnly);
+        assertEquals("primary_db", inReadWrite);
+        assertEquals("primary_db", withoutTransaction);
+    }
+
+    @Test
+    @DisplayName("Недоступная реплика исключается после проверки. Чтение идёт на основной сервер.")
+    void fallBackToPrimary_Test() {
+        //given
+        replicaPool.close();
+
+        //when
+        pools.checkReplicas();
+        String inReadOnly = readOnly.execute(status -> currentDatabase());
+
+        //then
+        assertEquals("primary_db", inReadOnly);
+    }
+
+    @Test
+    @DisplayName("Read-only метод JPA-сервиса через JpaTransactionManager идёт на реплику, пишущий на основной сервер.")
+    void routeJpaServiceByReadOnly_Test() {
+        //given
+        RoutingProbe probe = jpaContext().getBean(RoutingProbe.class);
+
+        //when
+        String inReadOnly = probe.currentDatabase();
+        String inReadWrite = probe.write("jpa");
+
+        //then
+        assertEquals("replica_db", inReadOnly);
+        assertEquals("primary_db", inReadWrite);
+    }
+
+    @Test
+    @DisplayName("Запись после чтения в одном запросе. Чтение идёт на реплику, запись и чтение в пишущей транзакции на основной сервер.")
+    void writeAfterReadInOneRequest_Test() {
+        //given
+        RoutingProbe probe = jpaContext().getBean(RoutingProbe.class);
+
+        //when
+        String read = probe.currentDatabase();
+        List<String> readThenWrite = probe.readThenWrite("after-read");
+
+        //then
+        assertEquals("replica_db", read);
+        assertEquals(List.of("primary_db", "primary_db"), readThenWrite);
+        assertEquals(1, probeRows(primaryPool));
+        assertEquals(0, probeRows(replicaPool));
+    }
+
+    private ConfigurableApplicationContext jpaContext() {
+        for (DataSource pool : List.of(primaryPool, replicaPool)) {
+            JdbcTemplate direct = new JdbcTemplate(pool);
+            direct.execute("CREATE TABLE IF NOT EXISTS routing_probe (value text)");
+            direct.execute("TRUNCATE routing_probe");
+        }
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> dataSource);
+        context.register(JpaRoutingConfig.class);
+        context.refresh();
+        jpaContext = context;
+        return context;
+    }
+
+    private static int probeRows(DataSource pool) {
+        return new JdbcTemplate(pool).queryForObject("SELECT count(*) FROM routing_probe", Integer.class);
+    }
+
+    private String currentDatabase() {
+        return jdbcTemplate.queryForObject(CURRENT_DATABASE, String.class);
+    }
+
+    private static PostgreSQLContainer<?> container(String databaseName) {
+        return new PostgreSQLContainer<>(
+                DockerImageName.parse(IMAGE_VERSION).asCompatibleSubstituteFor("postgres"))
+                .withDatabaseName(databaseName)
+                .withUsername("postgres")
+                .withPassword("mysecretpassword");
+    }
+
+    private static HikariDataSource pool(PostgreSQLContainer<?> container, String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setPoolName(name);
+        pool.setJdbcUrl(container.getJdbcUrl());
+        pool.setUsername(container.getUsername());
+        pool.setPassword(container.getPassword());
+        pool.setMaximumPoolSize(2);
+        return pool;
+    }
+
+    @Configuration
+    @EnableTransactionManagement
+    static class JpaRoutingConfig {
+
+        @Bean
+        LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+            LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+            factory.setDataSource(dataSource);
+            factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+            factory.setPackagesToScan(RoutingProbe.class.getPackageName());
+            return factory;
+        }
+
+        @Bean
+        JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory) {
+            return new JpaTransactionManager(entityManagerFactory);
+        }
+
+        @Bean
+        RoutingProbe routingProbe() {
+            return new RoutingProbe();
+        }
+    }
+
+    /**
+     * Сервис с транзакциями через {@code @Transactional}, как сервисы приложения.
+     */
+    static class RoutingProbe {
+        @PersistenceContext
+        EntityManager entityManager;
+
+        @Transactional(readOnly = true)
+        public String currentDatabase() {
+            return queryCurrentDatabase();
+        }
+
+        @Transactional
+        public String write(String value) {
+            insert(value);
+            return queryCurrentDatabase();
+        }
+
+        @Transactional
+        public List<String> readThenWrite(String value) {
+            String read = queryCurrentDatabase();
+            insert(value);
+            return List.of(read, queryCurrentDatabase());
+        }
+
+        private void insert(String value) {
+            entityManager.createNativeQuery("INSERT INTO routing_probe (value) VALUES (?1)")
+                    .setParameter(1, value)
+                    .executeUpdate();
+        }
+
+        private String queryCurrentDatabase() {
+            return (String) entityManager.createNativeQuery(CURRENT_DATABASE).getSingleResult();
+        }
+    }
+}
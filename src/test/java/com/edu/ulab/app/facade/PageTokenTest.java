@@ -0,0 +1,45 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.exception.InvalidPageTokenException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование {@link PageToken}.
+ */
+@DisplayName("Testing page token.")
+public class PageTokenTest {
+
+    @Test
+    @DisplayName("Закодированный id читается обратно.")
+    void roundTrip_Test() {
+        //given
+        long lastId = 123456789L;
+
+        //when
+        String token = PageToken.encode(lastId);
+
+        //then
+        assertThat(token).doesNotContain("=", "+", "/");
+        assertThat(PageToken.decode(token)).isEqualTo(lastId);
+    }
+
+    @Test
+    @DisplayName("Пустой токен означает первую страницу.")
+    void emptyToken_Test() {
+        assertThat(PageToken.decode(null)).isZero();
+        assertThat(PageToken.decode("")).isZero();
+    }
+
+    @Test
+    @DisplayName("Повреждённый токен. Должно выбросить исключение.")
+    void invalidToken_Test() {
+        assertThatThrownBy(() -> PageToken.decode("not a token"))
+                .isInstanceOf(InvalidPageTokenException.class);
+        assertThatThrownBy(() -> PageToken.decode("AQ"))
+                .isInstanceOf(InvalidPageTokenException.class);
+    }
+}
@@ -0,0 +1,119 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.cache.SecondLevelCacheEviction;
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.config.ReactivePostgreSqlConfig;
+import com.edu.ulab.app.config.SecondLevelCacheConfig;
+import com.edu.ulab.app.config.SecondLevelCacheProperties;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.reactive.ReactiveBookRepository;
+import com.edu.ulab.app.reactive.ReactiveUserRepository;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Записи через R2DBC ({@link ReactiveUserDataFacade}) и последующие чтения через JPA-сервисы
+ * при включённом кэше второго уровня.
+ * <p>
+ * Обе стороны фиксируют транзакции сами, поэтому тест работает без общей транзакции
+ * и очищает схему до и после себя.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ReactivePostgreSqlConfig.class, SecondLevelCacheConfig.class,
+        ReactiveUserDataFacade.class, ReactiveUserRepository.class, ReactiveBookRepository.class,
+        UserServiceImpl.class, BookServiceImpl.class, UserMapperImpl.class, BookMapperImpl.class,
+        IdAllocator.class, UserBookResponseCache.class, SecondLevelCacheEviction.class})
+@EnableConfigurationProperties({OptimisticLockProperties.class, SecondLevelCacheProperties.class})
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true"
+})
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql"})
+@Sql(value = "classpath:sql/1_clear_schema.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testing second-level cache after reactive writes.")
+public class ReactiveSecondLevelCacheTest {
+    private static final long USER_ID = 1001L;
+
+    @Autowired
+    ReactiveUserDataFacade reactiveUserDataFacade;
+    @Autowired
+    UserServiceImpl userService;
+    @Autowired
+    BookServiceImpl bookService;
+
+    @Test
+    @DisplayName("Обновление через v2, затем чтение через v1. Пользователь и книги читаются без устаревшего кэша.")
+    void v1ReadAfterV2Update_Test() {
+        //given
+        userService.getUserById(USER_ID);
+        bookService.getBooksByUserId(USER_ID);
+
+        //when
+        reactiveUserDataFacade.updateUserWithBooks(request("updated user", "default book", "author", 100), USER_ID).block();
+
+        //then
+        assertThat(userService.getUserById(USER_ID).getFullName()).isEqualTo("updated user");
+        assertThat(bookService.getBooksByUserId(USER_ID))
+                .extracting(BookDto::getId, BookDto::getPageCount, BookDto::getVersion)
+                .containsExactly(tuple(2002L, 100L, 1L));
+    }
+
+    @Test
+    @DisplayName("Удаление через v2, затем чтение через v1. Пользователь не найден, книг нет.")
+    void v1ReadAfterV2Delete_Test() {
+        //given
+        userService.getUserById(USER_ID);
+        bookService.getBooksByUserId(USER_ID);
+
+        //when
+        reactiveUserDataFacade.deleteUserWithBooks(USER_ID).block();
+
+        //then
+        assertThatThrownBy(() -> userService.getUserById(USER_ID)).isInstanceOf(PersonNotFoundException.class);
+        assertThat(bookService.getBooksByUserId(USER_ID)).isEmpty();
+    }
+
+    private static UserBookRequest request(String fullName, String title, String author, long pageCount) {
+        UserRequest user = new UserRequest();
+        user.setFullName(fullName);
+        user.setTitle("reader");
+        user.setAge(55);
+
+        BookRequest book = new BookRequest();
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setPageCount(pageCount);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(List.of(book));
+        return request;
+    }
+}
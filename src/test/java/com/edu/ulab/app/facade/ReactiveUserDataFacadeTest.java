@@ -0,0 +1,264 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.cache.SecondLevelCacheEviction;
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.reactive.ReactiveBookRepository;
+import com.edu.ulab.app.reactive.ReactiveUserRepository;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование функционала {@link ReactiveUserDataFacade}.
+ */
+@UnitTest
+@DisplayName("Testing reactive user data facade.")
+public class ReactiveUserDataFacadeTest {
+    @Mock
+    ReactiveUserRepository userRepository;
+    @Mock
+    ReactiveBookRepository bookRepository;
+    @Mock
+    TransactionalOperator transactionalOperator;
+    @Mock
+    SecondLevelCacheEviction secondLevelCacheEviction;
+
+    ReactiveUserDataFacade facade;
+
+    @BeforeEach
+    void setUp() {
+        AtomicLong sequence = new AtomicLong(1);
+        OptimisticLockProperties optimisticLockProperties = new OptimisticLockProperties();
+        optimisticLockProperties.setBackoff(Duration.ofMillis(1));
+        facade = new ReactiveUserDataFacade(userRepository, bookRepository,
+                Mappers.getMapper(UserMapper.class), Mappers.getMapper(BookMapper.class),
+                new IdAllocator(sequence::getAndIncrement, 100), transactionalOperator,
+                new UserBookResponseCache(100, Duration.ofMinutes(1)), optimisticLockProperties, secondLevelCacheEviction);
+    }
+
+    @Test
+    @DisplayName("Создание пользователя с книгами. Книги вставляются одним пакетом.")
+    @SuppressWarnings("unchecked")
+    void createUserWithBooks_Test() {
+        //given
+        UserBookRequest request = request();
+        ArgumentCaptor<List<BookDto>> books = ArgumentCaptor.forClass(List.class);
+
+        //when
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.insert(any(UserDto.class))).thenReturn(Mono.empty());
+        when(bookRepository.insertAll(books.capture())).thenReturn(Mono.just(2L));
+
+        //then
+        UserBookResponse response = facade.createUserWithBooks(request).block();
+        assertEquals(100L, response.getUserId());
+        assertEquals(List.of(101L, 102L), response.getBooksIdList());
+        assertEquals(List.of(100L, 100L), books.getValue().stream().map(BookDto::getUserId).toList());
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя, которого изменили параллельно. Повтор с перечитанной версией проходит.")
+    @SuppressWarnings("unchecked")
+    void updateUserWithBooksRetriesOnConflict_Test() {
+        //given
+        long userId = 1L;
+        ArgumentCaptor<UserDto> users = ArgumentCaptor.forClass(UserDto.class);
+
+        //when
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findVersion(userId)).thenReturn(Mono.just(3L), Mono.just(4L));
+        when(userRepository.update(users.capture())).thenReturn(Mono.just(0), Mono.just(1));
+        when(bookRepository.findByUserId(userId)).thenReturn(Flux.empty());
+        when(bookRepository.deleteByIds(any())).thenReturn(Mono.just(0));
+        when(bookRepository.updateAll(any())).thenReturn(Mono.empty());
+        when(bookRepository.insertAll(any())).thenReturn(Mono.just(2L));
+
+        //then
+        assertEquals(userId, facade.updateUserWithBooks(request(), userId).block().getUserId());
+        assertEquals(List.of(3L, 4L), users.getAllValues().stream().map(UserDto::getVersion).toList());
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя с книгами. Пишется только разница с сохранёнными книгами.")
+    @SuppressWarnings("unchecked")
+    void updateUserWithBooksSyncsBooks_Test() {
+        //given
+        long userId = 1L;
+        BookDto changed = storedBook(10L, userId, "first", 50);
+        BookDto removed = storedBook(11L, userId, "old", 300);
+        ArgumentCaptor<Collection<Long>> deleted = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<List<BookDto>> updated = ArgumentCaptor.forClass(List.class);
+        ArgumentCaptor<List<BookDto>> inserted = ArgumentCaptor.forClass(List.class);
+
+        //when
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findVersion(userId)).thenReturn(Mono.just(3L));
+        when(userRepository.update(any(UserDto.class))).thenReturn(Mono.just(1));
+        when(bookRepository.findByUserId(userId)).thenReturn(Flux.just(changed, removed));
+        when(bookRepository.deleteByIds(deleted.capture())).thenReturn(Mono.just(1));
+        when(bookRepository.updateAll(updated.capture())).thenReturn(Mono.empty());
+        when(bookRepository.insertAll(inserted.capture())).thenReturn(Mono.just(1L));
+
+        //then
+        UserBookResponse response = facade.updateUserWithBooks(request(), userId).block();
+        assertEquals(List.of(10L, 100L), response.getBooksIdList());
+        assertEquals(List.of(11L), List.copyOf(deleted.getValue()));
+        assertEquals(List.of(10L), updated.getValue().stream().map(BookDto::getId).toList());
+        assertEquals(List.of(2L), updated.getValue().stream().map(BookDto::getVersion).toList());
+        assertEquals(List.of("second"), inserted.getValue().stream().map(BookDto::getTitle).toList());
+        verify(secondLevelCacheEviction).evict(userId, List.of(11L, 10L));
+    }
+
+    @Test
+    @DisplayName("Обновление пользователя при постоянном конфликте. Должно выбросить ошибку конфликта.")
+    @SuppressWarnings("unchecked")
+    void updateUserWithBooksConflict_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findVersion(userId)).thenReturn(Mono.just(3L));
+        when(userRepository.update(any(UserDto.class))).thenReturn(Mono.just(0));
+
+        //then
+        assertThrows(OptimisticLockingFailureException.class, () -> facade.updateUserWithBooks(request(), userId).block());
+        verify(userRepository, times(3)).update(any(UserDto.class));
+    }
+
+    @Test
+    @DisplayName("Обновление несуществующего пользователя. Должно выбросить исключение.")
+    @SuppressWarnings("unchecked")
+    void updateUserWithBooksNotFound_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userRepository.findVersion(userId)).thenReturn(Mono.empty());
+
+        //then
+        assertThrows(PersonNotFoundException.class, () -> facade.updateUserWithBooks(request(), userId).block());
+    }
+
+    @Test
+    @DisplayName("Получение пользователя с книгами. Должно пройти успешно.")
+    void getUserWithBooks_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(userRepository.findUserBookIds(userId)).thenReturn(Flux.just(Optional.of(2L), Optional.of(3L)));
+
+        //then
+        assertEquals(List.of(2L, 3L), facade.getUserWithBooks(userId).block().getBooksIdList());
+    }
+
+    @Test
+    @DisplayName("Получение пользователя без книг. Список книг должен быть пустым.")
+    void getUserWithoutBooks_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(userRepository.findUserBookIds(userId)).thenReturn(Flux.just(Optional.empty()));
+
+        //then
+        assertEquals(List.of(), facade.getUserWithBooks(userId).block().getBooksIdList());
+    }
+
+    @Test
+    @DisplayName("Получение несуществующего пользователя. Должно выбросить исключение.")
+    void getUserWithBooksNotFound_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(userRepository.findUserBookIds(userId)).thenReturn(Flux.empty());
+
+        //then
+        assertThrows(PersonNotFoundException.class, () -> facade.getUserWithBooks(userId).block());
+    }
+
+    @Test
+    @DisplayName("Удаление несуществующего пользователя. Должно выбросить исключение.")
+    @SuppressWarnings("unchecked")
+    void deleteUserWithBooksNotFound_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(bookRepository.deleteByUserId(userId)).thenReturn(Flux.empty());
+        when(userRepository.deleteById(userId)).thenReturn(Mono.just(0));
+
+        //then
+        assertThrows(PersonNotFoundException.class, () -> facade.deleteUserWithBooks(userId).block());
+        verify(bookRepository).deleteByUserId(userId);
+    }
+
+    private static BookDto storedBook(Long id, Long userId, String title, int pageCount) {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(id);
+        bookDto.setUserId(userId);
+        bookDto.setTitle(title);
+        bookDto.setAuthor("author");
+        bookDto.setPageCount(pageCount);
+        bookDto.setVersion(2L);
+        return bookDto;
+    }
+
+    private static UserBookRequest request() {
+        UserRequest user = new UserRequest();
+        user.setFullName("Test Test");
+        user.setTitle("reader");
+        user.setAge(30);
+
+        BookRequest first = new BookRequest();
+        first.setTitle("first");
+        first.setAuthor("author");
+        first.setPageCount(100);
+
+        BookRequest second = new BookRequest();
+        second.setTitle("second");
+        second.setAuthor("author");
+        second.setPageCount(200);
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(user);
+        request.setBookRequests(List.of(first, second));
+        return request;
+    }
+}
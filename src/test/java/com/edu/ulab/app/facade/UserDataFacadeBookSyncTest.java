@@ -0,0 +1,129 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.config.PagingProperties;
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование синхронизации книг в {@link UserDataFacade#updateUserWithBooks}.
+ */
+@UnitTest
+@DisplayName("Testing differential book sync on user update.")
+public class UserDataFacadeBookSyncTest {
+    @Mock
+    UserService userService;
+    @Mock
+    BookService bookService;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Captor
+    ArgumentCaptor<Collection<Long>> deletedIds;
+    @Captor
+    ArgumentCaptor<List<BookDto>> updatedBooks;
+    @Captor
+    ArgumentCaptor<List<BookDto>> createdBooks;
+
+    UserDataFacade facade;
+
+    @BeforeEach
+    void setUp() {
+        facade = new UserDataFacade(userService, bookService,
+                Mappers.getMapper(UserMapper.class), Mappers.getMapper(BookMapper.class),
+                new UserBookResponseCache(100, Duration.ofMinutes(1)), new PagingProperties(),
+                new OptimisticLockProperties(), transactionManager);
+    }
+
+    @Test
+    @DisplayName("Книга по id меняется, книга по title и author остаётся, новая вставляется, лишняя удаляется.")
+    void syncBooks_Test() {
+        //given
+        UserDto user = new UserDto();
+        user.setId(1001L);
+        List<BookDto> stored = List.of(
+                book(1L, "first", "author", 100, 0L),
+                book(2L, "second", "author", 200, 3L),
+                book(3L, "third", "author", 300, 1L));
+
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(new UserRequest());
+        request.setBookRequests(List.of(
+                bookRequest(1L, "first", "author", 150),
+                bookRequest(null, "second", "author", 200),
+                bookRequest(null, "fourth", "author", 400)));
+
+        BookDto created = book(4L, "fourth", "author", 400, 0L);
+
+        //when
+        when(userService.updateUser(any())).thenReturn(user);
+        when(bookService.getBooksByUserId(1001L)).thenReturn(stored);
+        when(bookService.createBooks(any())).thenReturn(List.of(created));
+        UserBookResponse response = facade.updateUserWithBooks(request, 1001L);
+
+        //then
+        verify(bookService).deleteBooksByIds(deletedIds.capture());
+        verify(bookService).updateBooks(updatedBooks.capture());
+        verify(bookService).createBooks(createdBooks.capture());
+        assertThat(new ArrayList<>(deletedIds.getValue())).containsExactly(3L);
+        assertThat(updatedBooks.getValue()).singleElement()
+                .satisfies(book -> {
+                    assertThat(book.getId()).isEqualTo(1L);
+                    assertThat(book.getVersion()).isEqualTo(0L);
+                    assertThat(book.getPageCount()).isEqualTo(150);
+                });
+        assertThat(createdBooks.getValue()).singleElement()
+                .satisfies(book -> {
+                    assertThat(book.getId()).isNull();
+                    assertThat(book.getUserId()).isEqualTo(1001L);
+                });
+        assertThat(response.getBooksIdList()).containsExactly(1L, 2L, 4L);
+    }
+
+    private static BookDto book(Long id, String title, String author, long pageCount, Long version) {
+        BookDto book = new BookDto();
+        book.setId(id);
+        book.setUserId(1001L);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setPageCount(pageCount);
+        book.setVersion(version);
+        return book;
+    }
+
+    private static BookRequest bookRequest(Long id, String title, String author, long pageCount) {
+        BookRequest book = new BookRequest();
+        book.setId(id);
+        book.setTitle(title);
+        book.setAuthor(author);
+        book.setPageCount(pageCount);
+        return book;
+    }
+}
@@ -0,0 +1,103 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.config.PagingProperties;
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.mapper.BookMapper;
+import com.edu.ulab.app.mapper.UserMapper;
+import com.edu.ulab.app.service.BookService;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import com.edu.ulab.app.web.response.UserBookResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование повторов {@link UserDataFacade#updateUserWithBooks} при конфликте версий.
+ */
+@UnitTest
+@DisplayName("Testing user update retries on version conflict.")
+public class UserDataFacadeRetryTest {
+    @Mock
+    UserService userService;
+    @Mock
+    BookService bookService;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    UserDataFacade facade;
+
+    @BeforeEach
+    void setUp() {
+        OptimisticLockProperties optimisticLockProperties = new OptimisticLockProperties();
+        optimisticLockProperties.setBackoff(Duration.ZERO);
+        facade = new UserDataFacade(userService, bookService,
+                Mappers.getMapper(UserMapper.class), Mappers.getMapper(BookMapper.class),
+                new UserBookResponseCache(100, Duration.ofMinutes(1)), new PagingProperties(),
+                optimisticLockProperties, transactionManager);
+    }
+
+    @Test
+    @DisplayName("Конфликт на первой попытке. Транзакция откатывается, вторая попытка проходит.")
+    void retryAfterConflict_Test() {
+        //given
+        UserDto updated = new UserDto();
+        updated.setId(1L);
+
+        //when
+        when(userService.updateUser(any()))
+                .thenThrow(new OptimisticLockingFailureException("user with id 1 was modified concurrently"))
+                .thenReturn(updated);
+        when(bookService.createBooks(List.of())).thenReturn(List.of());
+        UserBookResponse response = facade.updateUserWithBooks(request(), 1L);
+
+        //then
+        assertEquals(1L, response.getUserId());
+        verify(userService, times(2)).updateUser(any());
+        verify(transactionManager).rollback(any());
+        verify(transactionManager).commit(any());
+    }
+
+    @Test
+    @DisplayName("Конфликт на всех попытках. Ошибка конфликта уходит вызывающему.")
+    void giveUpAfterMaxAttempts_Test() {
+        //given
+
+        //when
+        when(userService.updateUser(any()))
+                .thenThrow(new OptimisticLockingFailureException("user with id 1 was modified concurrently"));
+
+        //then
+        assertThrows(OptimisticLockingFailureException.class, () -> facade.updateUserWithBooks(request(), 1L));
+        verify(userService, times(3)).updateUser(any());
+    }
+
+    private static UserBookRequest request() {
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("name");
+        userRequest.setTitle("title");
+        userRequest.setAge(30);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of());
+        return request;
+    }
+}
@@ -0,0 +1,102 @@
+package com.edu.ulab.app.facade;
+
+import com.edu.ulab.app.cache.UserBookResponseCache;
+import com.edu.ulab.app.config.OptimisticLockProperties;
+import com.edu.ulab.app.config.PagingProperties;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.mapper.BookMapperImpl;
+import com.edu.ulab.app.mapper.UserMapperImpl;
+import com.edu.ulab.app.service.impl.BookServiceImpl;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import com.edu.ulab.app.web.request.BookRequest;
+import com.edu.ulab.app.web.request.UserBookRequest;
+import com.edu.ulab.app.web.request.UserRequest;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование транзакций {@link UserDataFacade}: на чтении Hibernate не делает flush.
+ * <p>
+ * Фасад сам открывает транзакции, поэтому тест работает без общей транзакции
+ * и очищает схему до и после себя.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserDataFacade.class, UserServiceImpl.class, BookServiceImpl.class,
+        UserMapperImpl.class, BookMapperImpl.class, UserBookResponseCache.class})
+@EnableConfigurationProperties({PagingProperties.class, OptimisticLockProperties.class})
+@TestPropertySource(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql"})
+@Sql(value = "classpath:sql/1_clear_schema.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+@DisplayName("Testing UserDataFacade transaction boundaries.")
+public class UserDataFacadeTransactionTest {
+    @Autowired
+    UserDataFacade userDataFacade;
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+    }
+
+    @Test
+    @DisplayName("Чтение пользователя и страниц. Транзакции фиксируются без flush.")
+    void readWithoutFlush_Test() {
+        //given
+
+        //when
+        userDataFacade.getUserWithBooks(1001L);
+        userDataFacade.getUsers(null, 10);
+        userDataFacade.getBooks(null, 10);
+        userDataFacade.getUserBooks(1001L, null, 10);
+
+        //then
+        assertThat(statistics.getTransactionCount()).isEqualTo(4);
+        assertThat(statistics.getFlushCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Создание пользователя с книгами. Одна транзакция с flush.")
+    void writeWithFlush_Test() {
+        //given
+        UserRequest userRequest = new UserRequest();
+        userRequest.setFullName("new reader");
+        userRequest.setTitle("new title");
+        userRequest.setAge(30);
+        BookRequest bookRequest = new BookRequest();
+        bookRequest.setTitle("new book");
+        bookRequest.setAuthor("author");
+        bookRequest.setPageCount(100);
+        UserBookRequest request = new UserBookRequest();
+        request.setUserRequest(userRequest);
+        request.setBookRequests(List.of(bookRequest));
+
+        //when
+        userDataFacade.createUserWithBooks(request);
+
+        //then
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+        assertThat(statistics.getFlushCount()).isPositive();
+    }
+}
@@ -0,0 +1,58 @@
+package com.edu.ulab.app.id;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.service.ServiceRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование функционала {@link IdAllocatorGenerator}.
+ */
+@DisplayName("Testing hibernate id generator.")
+public class IdAllocatorGeneratorTest {
+
+    @Test
+    @DisplayName("Генератор берёт идентификаторы у аллокатора из настроек Hibernate.")
+    void generateFromConfiguredAllocator_Test() {
+        //given
+        AtomicLong sequence = new AtomicLong(3);
+        IdAllocator idAllocator = new IdAllocator(sequence::getAndIncrement, 10);
+        IdAllocatorGenerator generator = new IdAllocatorGenerator();
+
+        //when
+        generator.configure(null, new Properties(), serviceRegistry(Map.of(IdAllocatorGenerator.ALLOCATOR, idAllocator)));
+
+        //then
+        assertEquals(30L, generator.generate(null, new Object()));
+        assertEquals(31L, idAllocator.nextId());
+    }
+
+    @Test
+    @DisplayName("Чужой объект под ключом аллокатора. Должно выбросить исключение.")
+    void configureWithWrongAllocator_Test() {
+        //given
+        IdAllocatorGenerator generator = new IdAllocatorGenerator();
+
+        //then
+        assertThrows(MappingException.class, () ->
+                generator.configure(null, new Properties(), serviceRegistry(Map.of(IdAllocatorGenerator.ALLOCATOR, "allocator"))));
+    }
+
+    private static ServiceRegistry serviceRegistry(Map<String, Object> settings) {
+        ConfigurationService configurationService = mock(ConfigurationService.class);
+        when(configurationService.getSettings()).thenReturn(settings);
+        ServiceRegistry serviceRegistry = mock(ServiceRegistry.class);
+        when(serviceRegistry.getService(ConfigurationService.class)).thenReturn(configurationService);
+        return serviceRegistry;
+    }
+}
@@ -0,0 +1,92 @@
+package com.edu.ulab.app.id;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Тестирование функционала {@link IdAllocator}.
+ */
+@DisplayName("Testing id allocation.")
+public class IdAllocatorTest {
+
+    @Test
+    @DisplayName("Идентификаторы выдаются блоками по схеме hi/lo. Ноль не выдаётся.")
+    void nextId_Test() {
+        //given
+        AtomicLong sequence = new AtomicLong();
+        IdAllocator idAllocator = new IdAllocator(sequence::getAndIncrement, 10);
+
+        //then
+        assertEquals(1L, idAllocator.nextId());
+        for (int i = 2; i < 10; i++) {
+            idAllocator.nextId();
+        }
+        assertEquals(10L, idAllocator.nextId());
+        assertEquals(2L, sequence.get());
+    }
+
+    @Test
+    @DisplayName("Пакетная выдача идентификаторов переходит через границу блока.")
+    void nextIds_Test() {
+        //given
+        AtomicLong sequence = new AtomicLong(5);
+        IdAllocator idAllocator = new IdAllocator(sequence::getAndIncrement, 4);
+
+        //then
+        assertArrayEquals(new long[]{20L, 21L, 22L}, idAllocator.nextIds(3));
+        assertArrayEquals(new long[]{23L, 24L, 25L, 26L, 27L, 28L}, idAllocator.nextIds(6));
+        assertEquals(8L, sequence.get());
+    }
+
+    @Test
+    @DisplayName("Параллельная выдача идентификаторов не даёт повторов.")
+    void concurrentNextId_Test() throws Exception {
+        //given
+        AtomicLong sequence = new AtomicLong(1);
+        IdAllocator idAllocator = new IdAllocator(sequence::getAndIncrement, 16);
+        int threads = 8;
+        int idsPerThread = 10_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //when
+        List<Future<long[]>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < threads; t++) {
+                Callable<long[]> task = () -> {
+                    long[] ids = new long[idsPerThread];
+                    for (int i = 0; i < idsPerThread; i++) {
+                        ids[i] = idAllocator.nextId();
+                    }
+                    return ids;
+                };
+                futures.add(executor.submit(task));
+            }
+            Set<Long> allIds = new HashSet<>();
+            for (Future<long[]> future : futures) {
+                for (long id : future.get()) {
+                    allIds.add(id);
+                }
+            }
+
+            //then
+            assertEquals(threads * idsPerThread, allIds.size());
+            assertTrue(allIds.stream().allMatch(id -> id >= 16));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.edu.ulab.app.mapper;
+
+import com.edu.ulab.app.config.UnitTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование {@link BookDtoRowMapper} и {@link UserDtoRowMapper}.
+ */
+@UnitTest
+@DisplayName("Testing row mappers.")
+public class DtoRowMapperTest {
+    @Mock
+    ResultSet rs;
+
+    @Test
+    @DisplayName("Строка book читается в BookDto по номерам колонок.")
+    void mapBookRow_Test() throws SQLException {
+        //given
+        BookDto expected = new BookDto();
+        expected.setId(2002L);
+        expected.setUserId(1001L);
+        expected.setTitle("default book");
+        expected.setAuthor("author");
+        expected.setPageCount(5500);
+        expected.setVersion(3L);
+
+        //when
+        when(rs.getLong(1)).thenReturn(2002L);
+        when(rs.getLong(2)).thenReturn(1001L);
+        when(rs.getString(3)).thenReturn("default book");
+        when(rs.getString(4)).thenReturn("author");
+        when(rs.getLong(5)).thenReturn(5500L);
+        when(rs.getLong(6)).thenReturn(3L);
+
+        //then
+        assertEquals(expected, BookDtoRowMapper.INSTANCE.mapRow(rs, 0));
+    }
+
+    @Test
+    @DisplayName("Строка person читается в UserDto по номерам колонок.")
+    void mapUserRow_Test() throws SQLException {
+        //given
+        UserDto expected = new UserDto();
+        expected.setId(1001L);
+        expected.setFullName("default uer");
+        expected.setTitle("reader");
+        expected.setAge(55);
+        expected.setVersion(0L);
+
+        //when
+        when(rs.getLong(1)).thenReturn(1001L);
+        when(rs.getString(2)).thenReturn("default uer");
+        when(rs.getString(3)).thenReturn("reader");
+        when(rs.getInt(4)).thenReturn(55);
+        when(rs.getLong(5)).thenReturn(0L);
+
+        //then
+        assertEquals(expected, UserDtoRowMapper.INSTANCE.mapRow(rs, 0));
+    }
+}
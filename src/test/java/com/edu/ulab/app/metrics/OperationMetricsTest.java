@@ -0,0 +1,59 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import com.edu.ulab.app.service.UserService;
+import com.edu.ulab.app.service.impl.UserServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тестирование {@link OperationMetrics}.
+ */
+@DisplayName("Testing operation metrics.")
+public class OperationMetricsTest {
+    SimpleMeterRegistry registry;
+    UserServiceImpl target;
+    UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        target = mock(UserServiceImpl.class);
+        AspectJProxyFactory factory = new AspectJProxyFactory(target);
+        factory.addInterface(UserService.class);
+        factory.addAspect(new OperationMetrics(registry));
+        userService = factory.getProxy();
+    }
+
+    @Test
+    @DisplayName("Успешный вызов и ненайденный пользователь пишутся в разные таймеры, ненайденный учитывается счётчиком.")
+    void timeOutcomes_Test() {
+        //given
+        when(target.getUserById(1L)).thenReturn(new UserDto());
+        when(target.getUserById(2L)).thenThrow(new PersonNotFoundException("user with id 2 not found"));
+
+        //when
+        userService.getUserById(1L);
+        userService.getUserById(1L);
+        assertThatThrownBy(() -> userService.getUserById(2L)).isInstanceOf(PersonNotFoundException.class);
+
+        //then
+        assertThat(registry.get(OperationMetrics.TIMER)
+                .tags("layer", "service", "method", "getUserById", "outcome", "success")
+                .timer().count()).isEqualTo(2);
+        assertThat(registry.get(OperationMetrics.TIMER)
+                .tags("method", "getUserById", "outcome", "not_found")
+                .timer().count()).isEqualTo(1);
+        assertThat(registry.get(OperationMetrics.NOT_FOUND).tag("method", "getUserById")
+                .counter().count()).isEqualTo(1);
+    }
+}
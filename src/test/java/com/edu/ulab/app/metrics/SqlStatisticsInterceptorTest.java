@@ -0,0 +1,95 @@
+package com.edu.ulab.app.metrics;
+
+import com.edu.ulab.app.config.SqlMetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование {@link SqlStatisticsInterceptor} и {@link SqlStatisticsListener}.
+ */
+@DisplayName("Testing per-request SQL statistics.")
+public class SqlStatisticsInterceptorTest {
+    SimpleMeterRegistry registry;
+    SqlStatisticsInterceptor interceptor;
+    SqlStatisticsListener listener = new SqlStatisticsListener();
+    MockHttpServletRequest request;
+    MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @BeforeEach
+    void setUp() {
+        SqlMetricsProperties properties = new SqlMetricsProperties();
+        properties.setStatementBudget(3);
+        properties.setRepeatedStatementThreshold(3);
+        registry = new SimpleMeterRegistry();
+        interceptor = new SqlStatisticsInterceptor(registry, properties);
+        request = new MockHttpServletRequest("GET", "/api/v1/user/get/1");
+        request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/v1/user/get/{userId}");
+    }
+
+    @Test
+    @DisplayName("Запросы за HTTP-запрос публикуются с шаблоном пути, превышение бюджета и повторы учитываются.")
+    void recordPerEndpoint_Test() {
+        //given
+        interceptor.preHandle(request, response, new Object());
+
+        //when
+        listener.afterQuery(execution(5, 1), List.of(new QueryInfo("select * from book where id = ?")));
+        listener.afterQuery(execution(5, 1), List.of(new QueryInfo("select * from book where id = ?")));
+        listener.afterQuery(execution(5, 1), List.of(new QueryInfo("select * from book where id = ?")));
+        listener.afterQuery(execution(10, new int[]{1, 1}), List.of(new QueryInfo("insert into book"), new QueryInfo("insert into book")));
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        //then
+        assertThat(registry.get(SqlStatisticsInterceptor.STATEMENTS).tag("uri", "/api/v1/user/get/{userId}")
+                .summary().totalAmount()).isEqualTo(4);
+        assertThat(registry.get(SqlStatisticsInterceptor.ROWS).summary().totalAmount()).isEqualTo(5);
+        assertThat(registry.get(SqlStatisticsInterceptor.TIME).timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(25);
+        assertThat(registry.get(SqlStatisticsInterceptor.BUDGET_EXCEEDED).counter().count()).isEqualTo(1);
+        assertThat(registry.get(SqlStatisticsInterceptor.REPEATED).counter().count()).isEqualTo(1);
+        assertThat(SqlStatistics.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("Запросы вне HTTP-запроса не учитываются.")
+    void outsideRequest_Test() {
+        //when
+        listener.afterQuery(execution(5, 1), List.of(new QueryInfo("select 1")));
+
+        //then
+        assertThat(SqlStatistics.current()).isNull();
+        assertThat(registry.find(SqlStatisticsInterceptor.STATEMENTS).summary()).isNull();
+    }
+
+    @Test
+    @DisplayName("Пакет, переписанный драйвером в многострочный INSERT, учитывается по числу элементов.")
+    void rewrittenBatchRows_Test() {
+        //when
+        long rewritten = SqlStatisticsListener.affectedRows(new int[]{Statement.SUCCESS_NO_INFO, Statement.SUCCESS_NO_INFO});
+        long failed = SqlStatisticsListener.affectedRows(new int[]{1, Statement.EXECUTE_FAILED});
+
+        //then
+        assertThat(rewritten).isEqualTo(2);
+        assertThat(failed).isEqualTo(1);
+    }
+
+    private static ExecutionInfo execution(long elapsedMillis, Object result) {
+        ExecutionInfo info = new ExecutionInfo();
+        info.setElapsedTime(elapsedMillis);
+        info.setResult(result);
+        return info;
+    }
+}
@@ -0,0 +1,41 @@
+package com.edu.ulab.app.pool;
+
+import com.edu.ulab.app.config.AdaptivePoolProperties;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Тестирование решений {@link AdaptivePoolSizer}.
+ */
+@DisplayName("Testing adaptive pool sizing.")
+public class AdaptivePoolSizerTest {
+    private final AdaptivePoolProperties properties = new AdaptivePoolProperties();
+
+    @Test
+    @DisplayName("Запросы ждут соединение, база отвечает быстро. Пул растёт на шаг, но не выше максимума.")
+    void growWhenStarving_Test() {
+        assertEquals(12, AdaptivePoolSizer.nextSize(10, 20, 3, 4, 0, properties));
+        assertEquals(30, AdaptivePoolSizer.nextSize(29, 20, 3, 4, 0, properties));
+    }
+
+    @Test
+    @DisplayName("Запросы ждут соединение, но медленная база. Пул не растёт.")
+    void holdWhenDatabaseIsSlow_Test() {
+        assertEquals(10, AdaptivePoolSizer.nextSize(10, 20, 250, 4, 0, properties));
+    }
+
+    @Test
+    @DisplayName("Ожидания нет, соединения простаивают. Пул уменьшается по одному до минимума.")
+    void shrinkWhenIdle_Test() {
+        assertEquals(9, AdaptivePoolSizer.nextSize(10, 0, 3, 0, 8, properties));
+        assertEquals(5, AdaptivePoolSizer.nextSize(5, 0, 3, 0, 4, properties));
+    }
+
+    @Test
+    @DisplayName("Умеренное ожидание. Размер не меняется.")
+    void keepOtherwise_Test() {
+        assertEquals(10, AdaptivePoolSizer.nextSize(10, 3, 3, 0, 1, properties));
+    }
+}
@@ -150,7 +150,7 @@ public class BookRepositoryTest {
         }).isInstanceOf(BookNotFoundException.class);
     }
     @Test
-    @DisplayName("Удалить книги по id пользователя. Число select должно равняться 1")
+    @DisplayName("Удалить книги по id пользователя. Должен выполниться один delete без select")
     void deleteBooksByUserId_thenAssertDmlCount() {
         //Given
         long userId = 1001L;
@@ -158,13 +158,14 @@ public class BookRepositoryTest {
         long bookId2 = 3003L;
 
         //When
-        bookRepository.deleteBooksByUserId(userId);
+        int deleted = bookRepository.deleteBooksByUserId(userId);
 
         //Then
-        assertSelectCount(1);
+        assertThat(deleted).isEqualTo(2);
+        assertSelectCount(0);
         assertInsertCount(0);
         assertUpdateCount(0);
-        assertDeleteCount(0);
+        assertDeleteCount(1);
         assertThatThrownBy(() -> {
             bookRepository.findById(bookId1).orElseThrow(() -> new BookNotFoundException("book with id " + bookId1 + " not found"));
         }).isInstanceOf(BookNotFoundException.class);
@@ -172,6 +173,27 @@ public class BookRepositoryTest {
             bookRepository.findById(bookId2).orElseThrow(() -> new BookNotFoundException("book with id " + bookId2 + " not found"));
         }).isInstanceOf(BookNotFoundException.class);
     }
+
+    @Test
+    @DisplayName("Удалить книги по списку id. Должен выполниться один delete без select")
+    void deleteBooksByIds_thenAssertDmlCount() {
+        //Given
+        long bookId1 = 2002L;
+        long bookId2 = 3003L;
+
+        //When
+        int deleted = bookRepository.deleteBooksByIds(List.of(bookId1));
+
+        //Then
+        assertThat(deleted).isEqualTo(1);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+        assertThat(bookRepository.findById(bookId1)).isEmpty();
+        assertThat(bookRepository.findById(bookId2)).isPresent();
+    }
+
     @Test
     @DisplayName("Получить книги по id пользователя. Число select должно равняться 1")
     void findBooksByUserId_thenAssertDmlCount() {
@@ -188,6 +210,36 @@ public class BookRepositoryTest {
         assertDeleteCount(0);
     }
 
+    @Test
+    @DisplayName("Получить страницу книг после id. Число select должно равняться 1, без count-запроса")
+    void findBooksAfterId_thenAssertDmlCount() {
+        //Given
+        long afterId = 2002L;
+
+        //When
+        List<Book> page = bookRepository.findByIdGreaterThanOrderByIdAsc(afterId, PageRequest.of(0, 10));
+
+        //Then
+        assertThat(page).extracting(Book::getId).containsExactly(3003L);
+        assertSelectCount(1);
+    }
+
+    @Test
+    @DisplayName("Получить страницу книг пользователя. Книги идут по возрастанию id, размер ограничен")
+    void findUserBooksAfterId_thenAssertDmlCount() {
+        //Given
+        long userId = 1001L;
+
+        //When
+        List<Book> firstPage = bookRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, 0L, PageRequest.of(0, 1));
+        List<Book> secondPage = bookRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(userId, 2002L, PageRequest.of(0, 1));
+
+        //Then
+        assertThat(firstPage).extracting(Book::getId).containsExactly(2002L);
+        assertThat(secondPage).extracting(Book::getId).containsExactly(3003L);
+        assertSelectCount(2);
+    }
+
 
 
     // update
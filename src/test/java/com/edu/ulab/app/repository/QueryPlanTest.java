@@ -0,0 +1,197 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.CapturingQueryListener;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.dto.BookDto;
+import com.edu.ulab.app.dto.UserDto;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.service.impl.BookServiceImplTemplate;
+import com.edu.ulab.app.service.impl.UserServiceImplTemplate;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.proxy.ParameterSetOperation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.sql.SQLException;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Регрессионные тесты планов горячих запросов репозиториев и JdbcTemplate-сервисов.
+ * <p>
+ * Таблицы заполняются 1000 пользователями и 20000 книг. Каждый горячий вызов выполняется
+ * по-настоящему, {@link CapturingQueryListener} запоминает отправленный SQL с параметрами,
+ * и по {@code EXPLAIN} каждого запроса проверяется, что ни один из них не читает таблицу целиком.
+ */
+@SystemJpaTest
+@Rollback
+@Import({UserServiceImplTemplate.class, BookServiceImplTemplate.class, IdAllocator.class})
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql",
+        "classpath:sql/4_insert_query_plan_data.sql"
+})
+public class QueryPlanTest {
+    private static final long USER_ID = 10042L;
+    private static final long BOOK_ID = 100042L;
+    private static final int PAGE_SIZE = 21;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+    @Autowired
+    CapturingQueryListener capturingQueryListener;
+    @Autowired
+    UserServiceImplTemplate userService;
+    @Autowired
+    BookServiceImplTemplate bookService;
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Test
+    @DisplayName("Индекс по user_id книги создан миграцией")
+    void bookUserIdIndex_exists() {
+        //Given
+        final String GET_INDEX = "SELECT indexdef FROM pg_indexes WHERE schemaname = 'ulab_edu' AND indexname = ?";
+
+        //When
+        List<String> definitions = jdbcTemplate.queryForList(GET_INDEX, String.class, "idx_ulab_edu_book_user_id");
+
+        //Then
+        assertThat(definitions).hasSize(1);
+        assertThat(definitions.get(0)).contains("(user_id, id)");
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @DisplayName("Запросы сервисов и репозиториев не должны использовать Seq Scan")
+    @MethodSource("hotCalls")
+    void hotQuery_thenAssertNoSeqScan(Consumer<QueryPlanTest> call) {
+        //Given
+        jdbcTemplate.execute("SET LOCAL search_path TO ulab_edu, public");
+
+        //When
+        List<QueryInfo> queries;
+        capturingQueryListener.start();
+        try {
+            call.accept(this);
+        } finally {
+            queries = capturingQueryListener.stop();
+        }
+
+        //Then
+        assertThat(queries).as("Вызов не выполнил ни одного запроса").isNotEmpty();
+        for (QueryInfo query : queries) {
+            List<String> plan = explain(query);
+            assertThat(plan)
+                    .as("План запроса %s:%n%s", query.getQuery(), String.join(System.lineSeparator(), plan))
+                    .noneMatch(line -> line.contains("Seq Scan"));
+        }
+    }
+
+    /**
+     * Горячие вызовы JdbcTemplate-сервисов и JPA-репозиториев. Проверяется SQL, который они
+     * действительно выполняют, а не его копия.
+     */
+    static Stream<Named<Consumer<QueryPlanTest>>> hotCalls() {
+        return Stream.of(
+                Named.of("UserServiceImplTemplate.getUserById", test -> test.userService.getUserById(USER_ID)),
+                Named.of("UserServiceImplTemplate.updateUser", test -> test.userService.updateUser(user())),
+                Named.of("UserServiceImplTemplate.getUserBookIds", test -> test.userService.getUserBookIds(USER_ID)),
+                Named.of("UserServiceImplTemplate.getUsersAfter", test -> test.userService.getUsersAfter(USER_ID, PAGE_SIZE)),
+                Named.of("UserServiceImplTemplate.deleteUserById", test -> {
+                    test.bookService.deleteBookByUserId(USER_ID);
+                    test.userService.deleteUserById(USER_ID);
+                }),
+                Named.of("BookServiceImplTemplate.getBookById", test -> test.bookService.getBookById(BOOK_ID)),
+                Named.of("BookServiceImplTemplate.updateBook", test -> test.bookService.updateBook(book())),
+                Named.of("BookServiceImplTemplate.updateBooks", test -> test.bookService.updateBooks(List.of(book()))),
+                Named.of("BookServiceImplTemplate.getBookIdByUserId", test -> test.bookService.getBookIdByUserId(USER_ID)),
+                Named.of("BookServiceImplTemplate.getBooksByUserId", test -> test.bookService.getBooksByUserId(USER_ID)),
+                Named.of("BookServiceImplTemplate.getBooksAfter", test -> test.bookService.getBooksAfter(BOOK_ID, PAGE_SIZE)),
+                Named.of("BookServiceImplTemplate.getBooksByUserAfter",
+                        test -> test.bookService.getBooksByUserAfter(USER_ID, BOOK_ID, PAGE_SIZE)),
+                Named.of("BookServiceImplTemplate.deleteBookById", test -> test.bookService.deleteBookById(BOOK_ID)),
+                Named.of("BookServiceImplTemplate.deleteBooksByIds",
+                        test -> test.bookService.deleteBooksByIds(List.of(BOOK_ID, BOOK_ID + 1000))),
+                Named.of("BookServiceImplTemplate.deleteBookByUserId", test -> test.bookService.deleteBookByUserId(USER_ID)),
+                Named.of("UserRepository.findUserBookIds", test -> test.userRepository.findUserBookIds(USER_ID)),
+                Named.of("UserRepository.findByIdGreaterThanOrderByIdAsc",
+                        test -> test.userRepository.findByIdGreaterThanOrderByIdAsc(USER_ID, PageRequest.of(0, PAGE_SIZE))),
+                Named.of("UserRepository.deletePersonById", test -> {
+                    test.bookRepository.deleteBooksByUserId(USER_ID);
+                    test.userRepository.deletePersonById(USER_ID);
+                }),
+                Named.of("Person version update", test -> {
+                    test.entityManager.find(Person.class, USER_ID).setAge(31);
+                    test.entityManager.flush();
+                }),
+                Named.of("BookRepository.findBooksByUserId", test -> test.bookRepository.findBooksByUserId(USER_ID)),
+                Named.of("BookRepository.findByIdGreaterThanOrderByIdAsc",
+                        test -> test.bookRepository.findByIdGreaterThanOrderByIdAsc(BOOK_ID, PageRequest.of(0, PAGE_SIZE))),
+                Named.of("BookRepository.findByUserIdAndIdGreaterThanOrderByIdAsc",
+                        test -> test.bookRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(USER_ID, BOOK_ID, PageRequest.of(0, PAGE_SIZE))),
+                Named.of("BookRepository.deleteBooksByIds",
+                        test -> test.bookRepository.deleteBooksByIds(List.of(BOOK_ID, BOOK_ID + 1000))),
+                Named.of("BookRepository.deleteBooksByUserId", test -> test.bookRepository.deleteBooksByUserId(USER_ID)),
+                Named.of("Book version update", test -> {
+                    test.entityManager.find(Book.class, BOOK_ID).setPageCount(101);
+                    test.entityManager.flush();
+                })
+        );
+    }
+
+    /**
+     * {@code EXPLAIN} запроса с теми же параметрами; у пакета берётся первый набор параметров.
+     */
+    private List<String> explain(QueryInfo query) {
+        List<ParameterSetOperation> parameters = query.getParametersList().isEmpty()
+                ? List.of()
+                : query.getParametersList().get(0);
+        return jdbcTemplate.query("EXPLAIN " + query.getQuery(), ps -> {
+            for (ParameterSetOperation parameter : parameters) {
+                try {
+                    parameter.getMethod().invoke(ps, parameter.getArgs());
+                } catch (ReflectiveOperationException e) {
+                    throw new SQLException("Cannot bind parameter of " + query.getQuery(), e);
+                }
+            }
+        }, (rs, rowNum) -> rs.getString(1));
+    }
+
+    private static UserDto user() {
+        UserDto userDto = new UserDto();
+        userDto.setId(USER_ID);
+        userDto.setFullName("plan user " + USER_ID);
+        userDto.setTitle("plan reader " + USER_ID);
+        userDto.setAge(31);
+        return userDto;
+    }
+
+    private static BookDto book() {
+        BookDto bookDto = new BookDto();
+        bookDto.setId(BOOK_ID);
+        bookDto.setUserId(USER_ID);
+        bookDto.setTitle("plan book " + BOOK_ID);
+        bookDto.setAuthor("plan author");
+        bookDto.setPageCount(101);
+        return bookDto;
+    }
+}
@@ -0,0 +1,120 @@
+package com.edu.ulab.app.repository;
+
+import com.edu.ulab.app.config.SecondLevelCacheConfig;
+import com.edu.ulab.app.config.SecondLevelCacheProperties;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.vladmihalcea.sql.SQLStatementCountValidator;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+
+import javax.cache.CacheManager;
+import java.util.List;
+
+import static com.vladmihalcea.sql.SQLStatementCountValidator.assertSelectCount;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты кэша второго уровня для {@link Person} и {@link Book} с регионами из {@link SecondLevelCacheConfig}.
+ * Неописанный регион остановит запуск контекста, а попадания проверяются по именованным регионам.
+ */
+@SystemJpaTest
+@Rollback
+@Import(SecondLevelCacheConfig.class)
+@EnableConfigurationProperties(SecondLevelCacheProperties.class)
+@TestPropertySource(properties = {
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=true",
+        "spring.jpa.properties.hibernate.cache.use_query_cache=true",
+        "spring.jpa.properties.hibernate.generate_statistics=true"
+})
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql"
+})
+public class SecondLevelCacheTest {
+    @Autowired
+    UserRepository userRepository;
+    @Autowired
+    BookRepository bookRepository;
+    @Autowired
+    TestEntityManager entityManager;
+    @Autowired
+    CacheManager hibernateCacheManager;
+
+    @Test
+    @DisplayName("Повторное получение юзера после очистки контекста. Число select должно равняться 0")
+    void findPersonById_thenAssertCacheHit() {
+        //Given
+        long id = 1001L;
+        userRepository.findById(id);
+        entityManager.clear();
+        SQLStatementCountValidator.reset();
+        statistics().clear();
+
+        //When
+        Person person = userRepository.findById(id).get();
+
+        //Then
+        assertThat(person.getTitle()).isEqualTo("reader");
+        assertSelectCount(0);
+        assertThat(statistics().getDomainDataRegionStatistics("person").getHitCount()).isEqualTo(1);
+        assertThat(hibernateCacheManager.getCache("person")).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Повторное получение книги после очистки контекста. Число select должно равняться 0")
+    void findBookById_thenAssertCacheHit() {
+        //Given
+        long id = 2002L;
+        bookRepository.findById(id);
+        entityManager.clear();
+        SQLStatementCountValidator.reset();
+        statistics().clear();
+
+        //When
+        Book book = bookRepository.findById(id).get();
+
+        //Then
+        assertThat(book.getTitle()).isEqualTo("default book");
+        assertSelectCount(0);
+        assertThat(statistics().getDomainDataRegionStatistics("book").getHitCount()).isEqualTo(1);
+        assertThat(hibernateCacheManager.getCache("book")).isNotEmpty();
+    }
+
+    @Test
+    @DisplayName("Повторный поиск книг по id пользователя. Число select должно равняться 0")
+    void findBooksByUserId_thenAssertQueryCacheHit() {
+        //Given
+        long userId = 1001L;
+        bookRepository.findBooksByUserId(userId);
+        entityManager.clear();
+        SQLStatementCountValidator.reset();
+        statistics().clear();
+
+        //When
+        List<Book> books = bookRepository.findBooksByUserId(userId);
+
+        //Then
+        assertThat(books).extracting(Book::getId).containsExactlyInAnyOrder(2002L, 3003L);
+        assertSelectCount(0);
+        assertThat(statistics().getQueryRegionStatistics("book-by-user").getHitCount()).isEqualTo(1);
+        assertThat(statistics().getDomainDataRegionStatistics("book").getHitCount()).isEqualTo(2);
+        assertThat(hibernateCacheManager.getCache("book-by-user")).isNotEmpty();
+    }
+
+    private Statistics statistics() {
+        return entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+    }
+}
@@ -8,6 +8,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.jdbc.Sql;
 
@@ -73,6 +74,37 @@ public class UserRepositoryTest {
         assertDeleteCount(0);
     }
 
+    @Test
+    @DisplayName("Получить id книг юзера. Число select должно равняться 1")
+    void findUserBookIds_thenAssertDmlCount() {
+        //Given
+        long id = 1001L;
+
+        //When
+        List<Long> bookIds = userRepository.findUserBookIds(id);
+
+        //Then
+        assertThat(bookIds).containsExactly(2002L, 3003L);
+        assertSelectCount(1);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
+    @Test
+    @DisplayName("Получить id книг несуществующего юзера. Список должен быть пустым")
+    void findUserBookIdsNotFound_thenAssertDmlCount() {
+        //Given
+        long id = 404L;
+
+        //When
+        List<Long> bookIds = userRepository.findUserBookIds(id);
+
+        //Then
+        assertThat(bookIds).isEmpty();
+        assertSelectCount(1);
+    }
+
     @Test
     @DisplayName("Получить  всех юзеров. Число select должно равняться 1")
     void getAllPerson_thenAssertDmlCount() {
@@ -127,6 +159,57 @@ public class UserRepositoryTest {
             userRepository.findById(id).orElseThrow(() -> new PersonNotFoundException("user with id " + id + " not found"));
         }).isInstanceOf(PersonNotFoundException.class);
     }
+    @Test
+    @DisplayName("Удалить юзера одним запросом. Должен выполниться один delete без select")
+    void deletePersonByIdBulk_thenAssertDmlCount() {
+        //Given
+        long id = 1001L;
+
+        //When
+        int deleted = userRepository.deletePersonById(id);
+
+        //Then
+        assertThat(deleted).isEqualTo(1);
+        assertSelectCount(0);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(1);
+    }
+
+    @Test
+    @DisplayName("Удалить несуществующего юзера одним запросом. Число удалённых строк должно равняться 0")
+    void deletePersonByIdNotFound_thenAssertDmlCount() {
+        //Given
+        long id = 404L;
+
+        //When
+        int deleted = userRepository.deletePersonById(id);
+
+        //Then
+        assertThat(deleted).isZero();
+        assertSelectCount(0);
+        assertDeleteCount(1);
+    }
+
+    @Test
+    @DisplayName("Получить страницу юзеров после id. Число select должно равняться 1, без count-запроса")
+    void findPersonsAfterId_thenAssertDmlCount() {
+        //Given
+        PageRequest page = PageRequest.of(0, 10);
+
+        //When
+        List<Person> firstPage = userRepository.findByIdGreaterThanOrderByIdAsc(0L, page);
+        List<Person> lastPage = userRepository.findByIdGreaterThanOrderByIdAsc(1001L, page);
+
+        //Then
+        assertThat(firstPage).extracting(Person::getId).containsExactly(1001L);
+        assertThat(lastPage).isEmpty();
+        assertSelectCount(2);
+        assertInsertCount(0);
+        assertUpdateCount(0);
+        assertDeleteCount(0);
+    }
+
     // update
     // get
     // get all
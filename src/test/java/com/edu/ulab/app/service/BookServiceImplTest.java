@@ -91,6 +91,47 @@ public class BookServiceImplTest {
         assertEquals(1L, bookDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Создание нескольких книг. Id должны вернуться в порядке запроса.")
+    void saveBooks_Test() {
+        //given
+        BookDto bookDto1 = new BookDto();
+        bookDto1.setUserId(1L);
+        bookDto1.setTitle("test title 1");
+
+        BookDto bookDto2 = new BookDto();
+        bookDto2.setUserId(1L);
+        bookDto2.setTitle("test title 2");
+
+        Book book1 = new Book();
+        book1.setTitle("test title 1");
+        Book book2 = new Book();
+        book2.setTitle("test title 2");
+
+        Book savedBook1 = new Book();
+        savedBook1.setId(1L);
+        Book savedBook2 = new Book();
+        savedBook2.setId(2L);
+
+        BookDto result1 = new BookDto();
+        result1.setId(1L);
+        BookDto result2 = new BookDto();
+        result2.setId(2L);
+
+        //when
+        when(bookMapper.bookDtoToBook(bookDto1)).thenReturn(book1);
+        when(bookMapper.bookDtoToBook(bookDto2)).thenReturn(book2);
+        when(bookRepository.saveAll(List.of(book1, book2))).thenReturn(List.of(savedBook1, savedBook2));
+        when(bookMapper.bookToBookDto(savedBook1)).thenReturn(result1);
+        when(bookMapper.bookToBookDto(savedBook2)).thenReturn(result2);
+
+        //then
+        List<BookDto> savedBooks = bookService.createBooks(List.of(bookDto1, bookDto2));
+        assertEquals(2, savedBooks.size());
+        assertEquals(1L, savedBooks.get(0).getId());
+        assertEquals(2L, savedBooks.get(1).getId());
+    }
+
     @Test
     @DisplayName("Обновление книги. Должно пройти успешно.")
     void updateBook_Test() {
@@ -242,10 +283,11 @@ public class BookServiceImplTest {
         List<Book> listBook = new ArrayList<>();
 
         //when
+        when(bookRepository.deleteBooksByUserId(personId)).thenReturn(2);
         when(bookRepository.findBooksByUserId(personId)).thenReturn(listBook);
 
         //then
-        bookService.deleteBookByUserId(personId);
+        assertEquals(2, bookService.deleteBookByUserId(personId));
         List<Long> list = bookService.getBookIdByUserId(personId);
         assertTrue(list.isEmpty());
     }
@@ -281,6 +323,27 @@ public class BookServiceImplTest {
         assertEquals(1L, bookIdByUserId.get(0));
     }
 
+    @Test
+    @DisplayName("Получение страницы книг пользователя. Размер страницы передаётся в запрос.")
+    void getBooksByUserAfter_Test() {
+        //given
+        Book book = new Book();
+        book.setId(3L);
+        book.setUserId(1L);
+
+        BookDto bookDto = new BookDto();
+        bookDto.setId(3L);
+        bookDto.setUserId(1L);
+
+        //when
+        when(bookRepository.findByUserIdAndIdGreaterThanOrderByIdAsc(1L, 2L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(book));
+        when(bookMapper.bookToBookDto(book)).thenReturn(bookDto);
+
+        //then
+        assertEquals(List.of(bookDto), bookService.getBooksByUserAfter(1L, 2L, 10));
+    }
+
     // update
     // get
     // get all
@@ -0,0 +1,66 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.SystemJpaTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.jdbc.Sql;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты потоковой выгрузки {@link ExportService}.
+ */
+@SystemJpaTest
+@Rollback
+@Import(ExportService.class)
+@Sql({"classpath:sql/1_clear_schema.sql",
+        "classpath:sql/2_insert_person_data.sql",
+        "classpath:sql/3_insert_book_data.sql"
+})
+public class ExportServiceTest {
+    @Autowired
+    ExportService exportService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Выгрузка пользователей в NDJSON. Одна строка JSON на пользователя")
+    void exportUsersNdjson() {
+        //Given
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        long rows = exportService.exportUsers(ExportFormat.NDJSON, out);
+
+        //Then
+        assertThat(rows).isEqualTo(1);
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("{\"id\":1001,\"fullName\":\"default uer\",\"title\":\"reader\",\"age\":55}\n");
+    }
+
+    @Test
+    @DisplayName("Выгрузка книг в CSV. Заголовок и строка на книгу, спецсимволы экранируются")
+    void exportBooksCsv() {
+        //Given
+        jdbcTemplate.update("UPDATE ulab_edu.book SET title = ? WHERE id = 3003", "more \"default\", book");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        //When
+        long rows = exportService.exportBooks(ExportFormat.CSV, out);
+
+        //Then
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                id,userId,title,author,pageCount
+                2002,1001,default book,author,5500
+                3003,1001,"more ""default"", book",on more author,6655
+                """);
+    }
+}
@@ -0,0 +1,101 @@
+package com.edu.ulab.app.service;
+
+import com.edu.ulab.app.config.ImportProperties;
+import com.edu.ulab.app.config.SystemJpaTest;
+import com.edu.ulab.app.id.IdAllocator;
+import com.edu.ulab.app.web.response.ImportError;
+import com.edu.ulab.app.web.response.ImportReport;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тесты пакетной загрузки {@link ImportService}.
+ * <p>
+ * Пачки вставляются в отдельном потоке и фиксируются сразу, поэтому тест работает без общей транзакции
+ * и очищает схему до и после себя.
+ */
+@SystemJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ImportService.class, IdAllocator.class})
+@EnableConfigurationProperties(ImportProperties.class)
+@TestPropertySource(properties = "app.import.chunk-size=2")
+@Sql("classpath:sql/1_clear_schema.sql")
+@Sql(value = "classpath:sql/1_clear_schema.sql", executionPhase = Sql.ExecutionPhase.AFTER_TEST_METHOD)
+public class ImportServiceTest {
+    @Autowired
+    ImportService importService;
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Загрузка NDJSON. Корректные записи вставляются, ошибочные попадают в отчёт с номером строки")
+    void importNdjson() {
+        //Given
+        String body = """
+                {"userRequest":{"fullName":"First","title":"first","age":30},"bookRequests":[{"title":"a","author":"b","pageCount":10}]}
+                {"userRequest":{"fullName":"Second","title":"second","age":31},"bookRequests":[]}
+                not json
+
+                {"userRequest":{"fullName":"","title":"empty","age":32}}
+                {"userRequest":{"fullName":"Third","title":"third","age":33},"bookRequests":[{"title":"c","author":"d","pageCount":20},{"title":"e","author":"f","pageCount":30}]}
+                null
+                """;
+
+        //When
+        ImportReport report = importService.importUsers(ExportFormat.NDJSON, stream(body));
+
+        //Then
+        assertThat(report.getRecords()).isEqualTo(6);
+        assertThat(report.getImportedUsers()).isEqualTo(3);
+        assertThat(report.getImportedBooks()).isEqualTo(3);
+        assertThat(report.getFailed()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ImportError::getLine).containsExactly(3L, 5L, 7L);
+        assertThat(count("ulab_edu.person")).isEqualTo(3);
+        assertThat(count("ulab_edu.book")).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Загрузка CSV с повторяющимся title. Пачка вставляется по одной записи, в отчёт попадает только дубль")
+    void importCsvWithDuplicate() {
+        //Given
+        String body = """
+                fullName,title,age,bookTitle,bookAuthor,bookPageCount
+                First,reader,30,"Book, with comma",author,100
+                Second,reader,31
+                Third,writer,32,one,author,10,two,author,20
+                """;
+
+        //When
+        ImportReport report = importService.importUsers(ExportFormat.CSV, stream(body));
+
+        //Then
+        assertThat(report.getRecords()).isEqualTo(3);
+        assertThat(report.getImportedUsers()).isEqualTo(2);
+        assertThat(report.getImportedBooks()).isEqualTo(3);
+        assertThat(report.getErrors()).extracting(ImportError::getLine).containsExactly(3L);
+        assertThat(jdbcTemplate.queryForObject("SELECT title FROM ulab_edu.book WHERE author = 'author' AND page_count = 100",
+                String.class)).isEqualTo("Book, with comma");
+        assertThat(count("ulab_edu.person")).isEqualTo(2);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+
+    private static ByteArrayInputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
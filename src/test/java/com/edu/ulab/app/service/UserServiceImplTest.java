@@ -14,14 +14,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.when;
 
 /**
@@ -120,6 +124,32 @@ public class UserServiceImplTest {
         assertEquals(35, userDtoResult.getAge());
     }
 
+    @Test
+    @DisplayName("Обновление пользователя с устаревшей версией. Должно выбросить ошибку конфликта.")
+    void updatePersonStaleVersion_Test() {
+        //given
+        UserDto userDto = new UserDto();
+        userDto.setId(1L);
+        userDto.setFullName("test name");
+        userDto.setTitle("test title");
+        userDto.setAge(35);
+        userDto.setVersion(1L);
+
+        Person gotUser = new Person();
+        gotUser.setId(userDto.getId());
+        gotUser.setFullName("name");
+        gotUser.setTitle("title");
+        gotUser.setAge(30);
+        gotUser.setVersion(2L);
+
+        //when
+        when(userRepository.findById(userDto.getId())).thenReturn(Optional.of(gotUser));
+
+        //then
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> userService.updateUser(userDto));
+        assertEquals("name", gotUser.getFullName());
+    }
+
     @Test
     @DisplayName("Получение пользователя по id. Должно пройти успешно.")
     void getUserById_Test() {
@@ -148,6 +178,47 @@ public class UserServiceImplTest {
         assertEquals(1L, userDtoResult.getId());
     }
 
+    @Test
+    @DisplayName("Получение id книг пользователя одним запросом. Должно пройти успешно.")
+    void getUserBookIds_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(userRepository.findUserBookIds(userId)).thenReturn(List.of(2L, 3L));
+
+        //then
+        assertEquals(List.of(2L, 3L), userService.getUserBookIds(userId));
+    }
+
+    @Test
+    @DisplayName("Получение id книг пользователя без книг. Должен вернуться пустой список.")
+    void getUserBookIdsWithoutBooks_Test() {
+        //given
+        long userId = 1L;
+        List<Long> noBooks = new ArrayList<>();
+        noBooks.add(null);
+
+        //when
+        when(userRepository.findUserBookIds(userId)).thenReturn(noBooks);
+
+        //then
+        assertTrue(userService.getUserBookIds(userId).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Получение id книг несуществующего пользователя. Должно выбросить исключение.")
+    void getUserBookIdsNotFound_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(userRepository.findUserBookIds(userId)).thenReturn(List.of());
+
+        //then
+        assertThrows(PersonNotFoundException.class, () -> userService.getUserBookIds(userId));
+    }
+
     @Test
     @DisplayName("Получение всех пользователей. Должно пройти успешно.")
     void getAllUsers_Test() {
@@ -191,6 +262,24 @@ public class UserServiceImplTest {
         assertEquals(userDto2, allUsers.get(1));
     }
 
+    @Test
+    @DisplayName("Получение страницы пользователей. Размер страницы передаётся в запрос.")
+    void getUsersAfter_Test() {
+        //given
+        Person person = new Person();
+        person.setId(5L);
+
+        UserDto userDto = new UserDto();
+        userDto.setId(5L);
+
+        //when
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(4L, PageRequest.of(0, 3))).thenReturn(List.of(person));
+        when(userMapper.personToUserDto(person)).thenReturn(userDto);
+
+        //then
+        assertEquals(List.of(userDto), userService.getUsersAfter(4L, 3));
+    }
+
     @Test
     @DisplayName("Удаление пользователя по id. Должно пройти успешно.")
     void deleteBook_Test() {
@@ -199,6 +288,7 @@ public class UserServiceImplTest {
         long userId = 1L;
 
         //when
+        when(userRepository.deletePersonById(userId)).thenReturn(1);
         when(userRepository.findById(userId)).thenReturn(Optional.empty());
 
         //then
@@ -206,6 +296,19 @@ public class UserServiceImplTest {
         assertThrows(PersonNotFoundException.class, () -> userService.getUserById(userId));
     }
 
+    @Test
+    @DisplayName("Удаление несуществующего пользователя. Должно выбросить исключение.")
+    void deleteUserNotFound_Test() {
+        //given
+        long userId = 1L;
+
+        //when
+        when(userRepository.deletePersonById(userId)).thenReturn(0);
+
+        //then
+        assertThrows(PersonNotFoundException.class, () -> userService.deleteUserById(userId));
+    }
+
     // update
     // get
     // get all
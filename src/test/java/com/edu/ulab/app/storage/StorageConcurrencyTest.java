@@ -0,0 +1,251 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочное тестирование конкурентного доступа к {@link Storage}.
+ */
+@DisplayName("Testing in-memory storage under concurrent load.")
+public class StorageConcurrencyTest {
+    private static final int USERS = 64;
+    private static final int BATCH = 4;
+    private static final int WRITERS = 4;
+    private static final int READERS = 4;
+    private static final long DURATION_MILLIS = 1_000;
+
+    @Test
+    @DisplayName("Читатели видят книги пользователя только целыми пакетами.")
+    void readersSeeWholeBatches_Test() throws Exception {
+        //given
+        Storage storage = new Storage(8);
+        long[] userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = storage.savePerson(person(i)).getId();
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        long userId = userIds[random.nextInt(USERS)];
+                        if (random.nextInt(4) == 0) {
+                            storage.deleteBooksByUserId(userId);
+                        } else {
+                            List<Book> batch = new ArrayList<>(BATCH);
+                            for (int b = 0; b < BATCH; b++) {
+                                batch.add(book(userId));
+                            }
+                            storage.saveBooks(batch);
+                        }
+                    }
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        long userId = userIds[random.nextInt(USERS)];
+                        Optional<long[]> bookIds = storage.findPersonBookIds(userId);
+                        assertThat(bookIds).isPresent();
+                        assertThat(bookIds.get().length % BATCH).isZero();
+                        for (long bookId : bookIds.get()) {
+                            Optional<Book> book = storage.findBook(bookId);
+                            if (book.isEmpty()) {
+                                // книгу могли удалить только после снимка индекса
+                                assertThat(storage.findBookIdsByUserId(userId)).doesNotContain(bookId);
+                            } else {
+                                assertThat(book.get().getUserId()).isEqualTo(userId);
+                            }
+                        }
+                        reads.incrementAndGet();
+                    }
+                }));
+            }
+            TimeUnit.MILLISECONDS.sleep(DURATION_MILLIS);
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(reads.get()).isPositive();
+        long indexedBooks = 0;
+        for (long userId : userIds) {
+            long[] bookIds = storage.findBookIdsByUserId(userId);
+            assertThat(bookIds.length % BATCH).isZero();
+            for (long bookId : bookIds) {
+                assertThat(storage.findBook(bookId)).get()
+                        .extracting(Book::getUserId).isEqualTo(userId);
+            }
+            indexedBooks += bookIds.length;
+        }
+        assertThat(storage.findAllBooks()).hasSize((int) indexedBooks);
+    }
+
+    @Test
+    @DisplayName("Без удалений каждая книга из индекса пользователя сразу находится по id.")
+    void indexedBooksAreFoundById_Test() throws Exception {
+        //given
+        Storage storage = new Storage(8);
+        long[] userIds = new long[USERS];
+        for (int i = 0; i < USERS; i++) {
+            userIds[i] = storage.savePerson(person(i)).getId();
+        }
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong reads = new AtomicLong();
+        ExecutorService executor = Executors.newFixedThreadPool(WRITERS + READERS);
+
+        //when
+        List<Future<?>> futures = new ArrayList<>();
+        try {
+            for (int w = 0; w < WRITERS; w++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        long userId = userIds[random.nextInt(USERS)];
+                        storage.saveBooks(List.of(book(userId), book(userId)));
+                    }
+                }));
+            }
+            for (int r = 0; r < READERS; r++) {
+                futures.add(executor.submit(() -> {
+                    ThreadLocalRandom random = ThreadLocalRandom.current();
+                    while (running.get()) {
+                        long userId = userIds[random.nextInt(USERS)];
+                        for (long bookId : storage.findPersonBookIds(userId).orElseThrow()) {
+                            assertThat(storage.findBook(bookId)).isPresent();
+                        }
+                        reads.incrementAndGet();
+                    }
+                }));
+            }
+            TimeUnit.MILLISECONDS.sleep(DURATION_MILLIS);
+            running.set(false);
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(reads.get()).isPositive();
+    }
+
+    @Test
+    @DisplayName("Удаление книги, которую конкурентно переносят между пользователями, всегда успешно.")
+    void deleteBookWhileMoving_Test() throws Exception {
+        //given
+        Storage storage = new Storage(8);
+        long firstUserId = storage.savePerson(person(1)).getId();
+        long secondUserId = storage.savePerson(person(2)).getId();
+        int attempts = 1_000;
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        //when
+        int deleted = 0;
+        try {
+            for (int i = 0; i < attempts; i++) {
+                Book saved = storage.saveBook(book(firstUserId));
+                AtomicBoolean moving = new AtomicBoolean(true);
+                Future<?> mover = executor.submit(() -> {
+                    boolean toSecond = true;
+                    while (moving.get()) {
+                        saved.setUserId(toSecond ? secondUserId : firstUserId);
+                        if (!storage.updateBook(saved)) {
+                            return;
+                        }
+                        toSecond = !toSecond;
+                    }
+                });
+                if (storage.deleteBook(saved.getId())) {
+                    deleted++;
+                }
+                moving.set(false);
+                mover.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(deleted).isEqualTo(attempts);
+        assertThat(storage.findAllBooks()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Параллельное создание пользователей даёт уникальные id.")
+    void concurrentSavePerson_Test() throws Exception {
+        //given
+        Storage storage = new Storage(8);
+        int threads = 8;
+        int personsPerThread = 1_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        //when
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < personsPerThread; i++) {
+                        Person saved = storage.savePerson(person(i));
+                        assertThat(storage.findPerson(saved.getId())).isPresent();
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        //then
+        assertThat(storage.findAllPersons())
+                .hasSize(threads * personsPerThread)
+                .extracting(Person::getId)
+                .doesNotHaveDuplicates();
+    }
+
+    private static Person person(int number) {
+        Person person = new Person();
+        person.setFullName("Test Test");
+        person.setTitle("reader " + number);
+        person.setAge(30);
+        return person;
+    }
+
+    private static Book book(long userId) {
+        Book book = new Book();
+        book.setUserId(userId);
+        book.setTitle("title");
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+}
@@ -0,0 +1,131 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Тестирование восстановления {@link Storage} из журнала и снимков.
+ */
+@DisplayName("Testing storage persistence.")
+public class StoragePersistenceTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("После перезапуска данные восстанавливаются из журнала.")
+    void recoverFromLog_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = persistence(storage);
+        persistence.start();
+        Person person = storage.savePerson(person("reader"));
+        List<Book> books = storage.saveBooks(List.of(book(person.getId(), "first"), book(person.getId(), "second")));
+        storage.deleteBook(books.get(0).getId());
+        person.setTitle("writer");
+        storage.updatePerson(person);
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = persistence(recovered);
+        recoveredPersistence.start();
+
+        //then
+        assertThat(recovered.findPerson(person.getId())).get()
+                .extracting(Person::getTitle).isEqualTo("writer");
+        assertThat(recovered.findBookIdsByUserId(person.getId())).containsExactly(books.get(1).getId());
+        assertThat(recovered.savePerson(person("next")).getId()).isGreaterThan(books.get(1).getId());
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("После снимка журнал обрезается, а данные восстанавливаются из снимка и хвоста журнала.")
+    void recoverFromSnapshotAndLog_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = persistence(storage);
+        persistence.start();
+        Person first = storage.savePerson(person("first"));
+        storage.saveBook(book(first.getId(), "book"));
+        persistence.takeSnapshot();
+        Person second = storage.savePerson(person("second"));
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = persistence(recovered);
+        recoveredPersistence.start();
+
+        //then
+        assertThat(recovered.findAllPersons()).extracting(Person::getId)
+                .containsExactlyInAnyOrder(first.getId(), second.getId());
+        assertThat(recovered.findBookIdsByUserId(first.getId())).hasSize(1);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString()))
+                    .hasSize(2)
+                    .anyMatch(name -> name.startsWith("snapshot-"))
+                    .anyMatch(name -> name.startsWith("wal-"));
+        }
+        recoveredPersistence.stop();
+    }
+
+    @Test
+    @DisplayName("Удаление пользователя с книгами без отдельного удаления книг. Снимок восстанавливается без книг-сирот.")
+    void recoverSnapshotAfterDeletingPersonWithBooks_Test() throws Exception {
+        //given
+        Storage storage = new Storage();
+        StoragePersistence persistence = persistence(storage);
+        persistence.start();
+        Person deleted = storage.savePerson(person("deleted"));
+        Book book = storage.saveBook(book(deleted.getId(), "orphan"));
+        Person kept = storage.savePerson(person("kept"));
+        storage.deletePerson(deleted.getId());
+        persistence.takeSnapshot();
+        persistence.stop();
+
+        //when
+        Storage recovered = new Storage();
+        StoragePersistence recoveredPersistence = persistence(recovered);
+        recoveredPersistence.start();
+
+        //then
+        assertThat(recovered.findAllPersons()).extracting(Person::getId).containsExactly(kept.getId());
+        assertThat(recovered.findBook(book.getId())).isEmpty();
+        assertThat(recovered.findAllBooks()).isEmpty();
+        recoveredPersistence.stop();
+    }
+
+    private StoragePersistence persistence(Storage storage) {
+        StorageProperties properties = new StorageProperties();
+        properties.getPersistence().setEnabled(true);
+        properties.getPersistence().setDirectory(directory);
+        return new StoragePersistence(storage, properties);
+    }
+
+    private static Person person(String title) {
+        Person person = new Person();
+        person.setFullName("Test Test");
+        person.setTitle(title);
+        person.setAge(30);
+        return person;
+    }
+
+    private static Book book(Long userId, String title) {
+        Book book = new Book();
+        book.setUserId(userId);
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+}
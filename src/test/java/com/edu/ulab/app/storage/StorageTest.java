@@ -0,0 +1,154 @@
+package com.edu.ulab.app.storage;
+
+import com.edu.ulab.app.entity.Book;
+import com.edu.ulab.app.entity.Person;
+import com.edu.ulab.app.exception.PersonNotFoundException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Тестирование функционала {@link Storage}.
+ */
+@DisplayName("Testing in-memory storage.")
+public class StorageTest {
+    Storage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new Storage();
+    }
+
+    @Test
+    @DisplayName("Сохранение пользователя с книгами. Книги должны находиться по id пользователя.")
+    void saveUserWithBooks_Test() {
+        //given
+        Person person = storage.savePerson(person("reader"));
+
+        //when
+        List<Book> books = storage.saveBooks(List.of(book(person.getId(), "first"), book(person.getId(), "second")));
+
+        //then
+        assertThat(person.getId()).isNotNull();
+        assertThat(storage.findPerson(person.getId())).get()
+                .extracting(Person::getTitle).isEqualTo("reader");
+        assertThat(storage.findBookIdsByUserId(person.getId()))
+                .containsExactly(books.get(0).getId(), books.get(1).getId());
+    }
+
+    @Test
+    @DisplayName("Изменение возвращённой копии не меняет хранилище.")
+    void returnedCopy_Test() {
+        //given
+        Person person = storage.savePerson(person("reader"));
+
+        //when
+        person.setTitle("changed");
+
+        //then
+        assertThat(storage.findPerson(person.getId())).get()
+                .extracting(Person::getTitle).isEqualTo("reader");
+    }
+
+    @Test
+    @DisplayName("Перенос книги к другому пользователю обновляет индекс.")
+    void moveBook_Test() {
+        //given
+        Person first = storage.savePerson(person("first"));
+        Person second = storage.savePerson(person("second"));
+        Book book = storage.saveBook(book(first.getId(), "book"));
+
+        //when
+        book.setUserId(second.getId());
+        boolean updated = storage.updateBook(book);
+
+        //then
+        assertThat(updated).isTrue();
+        assertThat(storage.findBookIdsByUserId(first.getId())).isEmpty();
+        assertThat(storage.findBookIdsByUserId(second.getId())).containsExactly(book.getId());
+    }
+
+    @Test
+    @DisplayName("Удаление книг пользователя. Книги и индекс должны быть очищены.")
+    void deleteBooksByUserId_Test() {
+        //given
+        Person person = storage.savePerson(person("reader"));
+        Book book = storage.saveBook(book(person.getId(), "book"));
+
+        //when
+        int deleted = storage.deleteBooksByUserId(person.getId());
+
+        //then
+        assertThat(deleted).isEqualTo(1);
+        assertThat(storage.findBook(book.getId())).isEmpty();
+        assertThat(storage.findBookIdsByUserId(person.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Сохранение книги несуществующего пользователя. Должно выбросить исключение.")
+    void saveBookWithoutUser_Test() {
+        assertThatThrownBy(() -> storage.saveBook(book(42L, "book")))
+                .isInstanceOf(PersonNotFoundException.class);
+    }
+
+    @Test
+    @DisplayName("Сохранение пакета книг, где у одной книги нет владельца. Не должна сохраниться ни одна книга.")
+    void saveBooksWithMissingOwner_Test() {
+        //given
+        Person person = storage.savePerson(person("reader"));
+        List<Book> books = List.of(book(person.getId(), "first"), book(42L, "second"));
+
+        //when
+        assertThatThrownBy(() -> storage.saveBooks(books))
+                .isInstanceOf(PersonNotFoundException.class);
+
+        //then
+        assertThat(storage.findAllBooks()).isEmpty();
+        assertThat(storage.findBookIdsByUserId(person.getId())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Постраничное чтение пользователей и книг. Страницы идут по возрастанию id без пропусков.")
+    void findAfter_Test() {
+        //given
+        Person first = storage.savePerson(person("first"));
+        Person second = storage.savePerson(person("second"));
+        Person third = storage.savePerson(person("third"));
+        List<Book> books = storage.saveBooks(List.of(book(first.getId(), "a"), book(second.getId(), "b"),
+                book(first.getId(), "c")));
+
+        //when
+        List<Person> firstPage = storage.findPersonsAfter(0L, 2);
+        List<Person> lastPage = storage.findPersonsAfter(firstPage.get(1).getId(), 2);
+        List<Book> userBooks = storage.findBooksByUserIdAfter(first.getId(), books.get(0).getId(), 10);
+
+        //then
+        assertThat(firstPage).extracting(Person::getId).containsExactly(first.getId(), second.getId());
+        assertThat(lastPage).extracting(Person::getId).containsExactly(third.getId());
+        assertThat(storage.findBooksAfter(0L, 10)).extracting(Book::getId)
+                .containsExactly(books.get(0).getId(), books.get(1).getId(), books.get(2).getId());
+        assertThat(userBooks).extracting(Book::getId).containsExactly(books.get(2).getId());
+    }
+
+    private static Person person(String title) {
+        Person person = new Person();
+        person.setFullName("Test Test");
+        person.setTitle(title);
+        person.setAge(30);
+        return person;
+    }
+
+    private static Book book(Long userId, String title) {
+        Book book = new Book();
+        book.setUserId(userId);
+        book.setTitle(title);
+        book.setAuthor("author");
+        book.setPageCount(100);
+        return book;
+    }
+}
@@ -0,0 +1,10 @@
+insert into ulab_edu.person (ID, FULL_NAME, TITLE, AGE)
+select id, 'plan user ' || id, 'plan reader ' || id, 30
+from generate_series(10000, 10999) as id;
+
+insert into ulab_edu.book (ID, USER_ID, TITLE, AUTHOR, PAGE_COUNT)
+select id, 10000 + id % 1000, 'plan book ' || id, 'plan author', 100
+from generate_series(100000, 119999) as id;
+
+analyze ulab_edu.person;
+analyze ulab_edu.book;